@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Key generation, ECIES and Schnorr signatures on E521 as exposed by ECC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ECCBenchmark {
+
+	@Param({"64", "65536"})
+	public int size;
+
+	private byte[] pw;
+	private byte[] msg;
+	private Object v;
+	private Object z;
+	private byte[] c;
+	private byte[] t;
+	private byte[] sig;
+
+	@Setup
+	public void setup() throws Throwable {
+		Random r = new Random(3);
+		pw = "benchmark".getBytes();
+		msg = new byte[size];
+		r.nextBytes(msg);
+		v = Lib.KEY_PAIR.invokeExact(pw);
+		byte[] crp = (byte[]) Lib.EC_ENCRYPT.invokeExact(v, msg, "1");
+		z = Lib.pointFromCryptogram(crp);
+		c = Arrays.copyOfRange(crp, 67, crp.length - 64);
+		t = Arrays.copyOfRange(crp, crp.length - 64, crp.length);
+		sig = (byte[]) Lib.SIGN.invokeExact(msg, pw);
+	}
+
+	@Benchmark
+	public Object keyPair() throws Throwable {
+		return (Object) Lib.KEY_PAIR.invokeExact(pw);
+	}
+
+	@Benchmark
+	public byte[] encrypt() throws Throwable {
+		return (byte[]) Lib.EC_ENCRYPT.invokeExact(v, msg, "1");
+	}
+
+	@Benchmark
+	public byte[] decrypt() throws Throwable {
+		return (byte[]) Lib.EC_DECRYPT.invokeExact(pw, z, c, t);
+	}
+
+	@Benchmark
+	public byte[] sign() throws Throwable {
+		return (byte[]) Lib.SIGN.invokeExact(msg, pw);
+	}
+
+	@Benchmark
+	public boolean verify() throws Throwable {
+		return (boolean) Lib.VERIFY.invokeExact(sig, msg, v);
+	}
+}
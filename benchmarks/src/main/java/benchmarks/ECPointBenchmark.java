@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point addition and scalar multiplication on E521.
+ * Scalars are 4 * (512-bit value), the shape ECC uses for keys and nonces.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ECPointBenchmark {
+
+	private BigInteger k;
+	private Object p;
+	private Object q;
+
+	@Setup
+	public void setup() throws Throwable {
+		Random r = new Random(2);
+		byte[] b = new byte[64];
+		r.nextBytes(b);
+		k = BigInteger.valueOf(4L).multiply(new BigInteger(b));
+		p = Lib.KEY_PAIR.invokeExact("benchmark".getBytes());
+		q = Lib.KEY_PAIR.invokeExact("another".getBytes());
+	}
+
+	@Benchmark
+	public Object getSum() throws Throwable {
+		return (Object) Lib.GET_SUM.invokeExact(p, q);
+	}
+
+	@Benchmark
+	public Object multByScalarFixedBase() throws Throwable {
+		return (Object) Lib.MULT_BY_SCALAR.invokeExact(k, Lib.G);
+	}
+
+	@Benchmark
+	public Object multByScalarVariableBase() throws Throwable {
+		return (Object) Lib.MULT_BY_SCALAR.invokeExact(k, p);
+	}
+}
@@ -0,0 +1,139 @@
+package benchmarks;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigInteger;
+
+/**
+ * Bridge to the library classes.
+ * The library lives in the unnamed package, which cannot be imported from here,
+ * so every entry point is looked up once and kept in a constant method handle.
+ * Points are passed around as Object.
+ */
+final class Lib {
+
+	/** SHA3.KMACXOF256(byte[] K, byte[] X, int L, byte[] S): byte[] */
+	static final MethodHandle KMACXOF256;
+
+	/** new ECPoint(BigInteger x, boolean lsb): Object */
+	static final MethodHandle NEW_POINT;
+
+	/** ECPoint.getSum(ECPoint): (Object, Object) Object */
+	static final MethodHandle GET_SUM;
+
+	/** ECPoint.multByScalar(BigInteger, ECPoint): (BigInteger, Object) Object */
+	static final MethodHandle MULT_BY_SCALAR;
+
+	/** ECC.keyPair(byte[] pw): Object */
+	static final MethodHandle KEY_PAIR;
+
+	/** ECC.ECEncrypt(ECPoint V, byte[] m, String outputOption): (Object, byte[], String) byte[] */
+	static final MethodHandle EC_ENCRYPT;
+
+	/** ECC.ECDecrypt(byte[] pw, ECPoint Z, byte[] c, byte[] t): (byte[], Object, byte[], byte[]) byte[] */
+	static final MethodHandle EC_DECRYPT;
+
+	/** ECC.sign(byte[] m, byte[] pw): byte[] */
+	static final MethodHandle SIGN;
+
+	/** ECC.verify(byte[] hz, byte[] m, ECPoint V): (byte[], byte[], Object) boolean */
+	static final MethodHandle VERIFY;
+
+	/** SymmetricEncryptDecrypt.symmEncrypt(byte[] pass, byte[] m, String outputOption): byte[] */
+	static final MethodHandle SYMM_ENCRYPT;
+
+	/** SymmetricEncryptDecrypt.symmDecrypt(byte[] z, byte[] pass, byte[] c, byte[] t): byte[] */
+	static final MethodHandle SYMM_DECRYPT;
+
+	/** SymmetricEncryptDecrypt.symmEncrypt(byte[] pass, InputStream in, OutputStream out): void */
+	static final MethodHandle SYMM_ENCRYPT_STREAM;
+
+	/** SymmetricEncryptDecrypt.symmDecrypt(byte[] pass, InputStream in, OutputStream out): boolean */
+	static final MethodHandle SYMM_DECRYPT_STREAM;
+
+	/** SegmentedEncryptDecrypt.encrypt(byte[] pass, byte[] m): byte[] */
+	static final MethodHandle SEG_ENCRYPT;
+
+	/** SegmentedEncryptDecrypt.decrypt(byte[] pass, byte[] crp): byte[] */
+	static final MethodHandle SEG_DECRYPT;
+
+	/** The base point ECPoint.G. */
+	static final Object G;
+
+	static {
+		try {
+			MethodHandles.Lookup l = MethodHandles.publicLookup();
+			Class<?> sha3 = Class.forName("SHA3");
+			Class<?> pt = Class.forName("ECPoint");
+			Class<?> ecc = Class.forName("ECC");
+			Class<?> symm = Class.forName("SymmetricEncryptDecrypt");
+			Class<?> seg = Class.forName("SegmentedEncryptDecrypt");
+
+			KMACXOF256 = l.findStatic(sha3, "KMACXOF256",
+					MethodType.methodType(byte[].class, byte[].class, byte[].class, int.class, byte[].class));
+			NEW_POINT = erase(l.findConstructor(pt,
+					MethodType.methodType(void.class, BigInteger.class, boolean.class)));
+			GET_SUM = erase(l.findVirtual(pt, "getSum", MethodType.methodType(pt, pt)));
+			MULT_BY_SCALAR = erase(l.findStatic(pt, "multByScalar",
+					MethodType.methodType(pt, BigInteger.class, pt)));
+			KEY_PAIR = erase(l.findStatic(ecc, "keyPair", MethodType.methodType(pt, byte[].class)));
+			EC_ENCRYPT = erase(l.findStatic(ecc, "ECEncrypt",
+					MethodType.methodType(byte[].class, pt, byte[].class, String.class)));
+			EC_DECRYPT = erase(l.findStatic(ecc, "ECDecrypt",
+					MethodType.methodType(byte[].class, byte[].class, pt, byte[].class, byte[].class)));
+			SIGN = l.findStatic(ecc, "sign", MethodType.methodType(byte[].class, byte[].class, byte[].class));
+			VERIFY = erase(l.findStatic(ecc, "verify",
+					MethodType.methodType(boolean.class, byte[].class, byte[].class, pt)));
+			SYMM_ENCRYPT = l.findStatic(symm, "symmEncrypt",
+					MethodType.methodType(byte[].class, byte[].class, byte[].class, String.class));
+			SYMM_DECRYPT = l.findStatic(symm, "symmDecrypt",
+					MethodType.methodType(byte[].class, byte[].class, byte[].class, byte[].class, byte[].class));
+			SYMM_ENCRYPT_STREAM = l.findStatic(symm, "symmEncrypt",
+					MethodType.methodType(void.class, byte[].class, InputStream.class, OutputStream.class));
+			SYMM_DECRYPT_STREAM = l.findStatic(symm, "symmDecrypt",
+					MethodType.methodType(boolean.class, byte[].class, InputStream.class, OutputStream.class));
+			SEG_ENCRYPT = l.findStatic(seg, "encrypt",
+					MethodType.methodType(byte[].class, byte[].class, byte[].class));
+			SEG_DECRYPT = l.findStatic(seg, "decrypt",
+					MethodType.methodType(byte[].class, byte[].class, byte[].class));
+			G = l.findStaticGetter(pt, "G", pt).invoke();
+		} catch (Throwable e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private Lib() {
+	}
+
+	/**
+	 * Replaces every ECPoint in the handle's type with Object so callers can use invokeExact.
+	 * @param mh handle over the library types
+	 * @return the same handle with points typed as Object
+	 */
+	private static MethodHandle erase(MethodHandle mh) {
+		MethodType t = mh.type();
+		for (int i = 0; i < t.parameterCount(); i++) {
+			if (t.parameterType(i).getName().equals("ECPoint")) {
+				t = t.changeParameterType(i, Object.class);
+			}
+		}
+		if (t.returnType().getName().equals("ECPoint")) {
+			t = t.changeReturnType(Object.class);
+		}
+		return mh.asType(t);
+	}
+
+	/**
+	 * Rebuilds the point Z from the first 67 bytes of an ECIES cryptogram, as Main does.
+	 * @param crp cryptogram (Z, c, t)
+	 * @return the point Z
+	 */
+	static Object pointFromCryptogram(byte[] crp) throws Throwable {
+		byte[] x = new byte[66];
+		System.arraycopy(crp, 0, x, 0, 66);
+		return (Object) NEW_POINT.invokeExact(new BigInteger(x), crp[66] == 1);
+	}
+}
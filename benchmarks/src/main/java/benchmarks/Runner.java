@@ -0,0 +1,27 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ * Accepts the usual JMH command line and always adds the GC profiler,
+ * so every run reports allocation rate next to throughput and average time.
+ */
+public final class Runner {
+
+	private Runner() {
+	}
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options opt = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new org.openjdk.jmh.runner.Runner(opt).run();
+	}
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * KMACXOF256 over messages from 16 B to 64 MB, 512-bit output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SHA3Benchmark {
+
+	@Param({"16", "256", "4096", "65536", "1048576", "16777216", "67108864"})
+	public int size;
+
+	private byte[] key;
+	private byte[] msg;
+	private byte[] custom;
+
+	@Setup
+	public void setup() {
+		Random r = new Random(1);
+		key = new byte[64];
+		r.nextBytes(key);
+		msg = new byte[size];
+		r.nextBytes(msg);
+		custom = "T".getBytes();
+	}
+
+	@Benchmark
+	public byte[] kmacxof256() throws Throwable {
+		return (byte[]) Lib.KMACXOF256.invokeExact(key, msg, 512, custom);
+	}
+}
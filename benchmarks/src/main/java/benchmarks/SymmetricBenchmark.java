@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Passphrase encryption and decryption through SymmetricEncryptDecrypt,
+ * on byte arrays and streamed from memory into a discarding sink,
+ * and through the parallel SegmentedEncryptDecrypt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SymmetricBenchmark {
+
+	@Param({"16", "4096", "1048576", "67108864"})
+	public int size;
+
+	private byte[] pw;
+	private byte[] msg;
+	private byte[] z;
+	private byte[] c;
+	private byte[] t;
+	private byte[] crp;
+	private byte[] seg;
+
+	@Setup
+	public void setup() throws Throwable {
+		Random r = new Random(4);
+		pw = "benchmark".getBytes();
+		msg = new byte[size];
+		r.nextBytes(msg);
+		crp = (byte[]) Lib.SYMM_ENCRYPT.invokeExact(pw, msg, "1");
+		z = Arrays.copyOfRange(crp, 0, 64);
+		c = Arrays.copyOfRange(crp, 64, crp.length - 64);
+		t = Arrays.copyOfRange(crp, crp.length - 64, crp.length);
+		seg = (byte[]) Lib.SEG_ENCRYPT.invokeExact(pw, msg);
+	}
+
+	@Benchmark
+	public byte[] encrypt() throws Throwable {
+		return (byte[]) Lib.SYMM_ENCRYPT.invokeExact(pw, msg, "1");
+	}
+
+	@Benchmark
+	public byte[] decrypt() throws Throwable {
+		return (byte[]) Lib.SYMM_DECRYPT.invokeExact(z, pw, c, t);
+	}
+
+	@Benchmark
+	public byte[] encryptSegmented() throws Throwable {
+		return (byte[]) Lib.SEG_ENCRYPT.invokeExact(pw, msg);
+	}
+
+	@Benchmark
+	public byte[] decryptSegmented() throws Throwable {
+		return (byte[]) Lib.SEG_DECRYPT.invokeExact(pw, seg);
+	}
+
+	@Benchmark
+	public void encryptStream() throws Throwable {
+		Lib.SYMM_ENCRYPT_STREAM.invokeExact(pw, (InputStream) new ByteArrayInputStream(msg), OutputStream.nullOutputStream());
+	}
+
+	@Benchmark
+	public boolean decryptStream() throws Throwable {
+		return (boolean) Lib.SYMM_DECRYPT_STREAM.invokeExact(pw, (InputStream) new ByteArrayInputStream(crp), OutputStream.nullOutputStream());
+	}
+}
@@ -0,0 +1,110 @@
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Handle on one elliptic key pair (s, V), derived from the passphrase once.
+ * ECC.ECDecrypt and ECC.sign re-derive s from the passphrase on every call;
+ * this handle keeps s, V = s*G and the encoded public key for as long as it is open.
+ * 
+ * close() overwrites the copies of s held here. The BigInteger built for each
+ * operation is immutable and cannot be wiped, so s is kept as bytes and
+ * rebuilt per call rather than held as a BigInteger. Rebuilding and wiping
+ * take the same lock, so close() never overlaps a copy of s being read.
+ * Named for the curve so as not to shadow java.security.PrivateKey.
+ */
+public final class E521PrivateKey implements AutoCloseable {
+
+	/**
+	 * Two's-complement bytes of s, zeroed on close. Also the lock for closed.
+	 */
+	private final byte[] secret;
+
+	private final ECPoint v;
+
+	private final byte[] encoded;
+
+	private boolean closed;
+
+	/**
+	 * Derives the key pair from a passphrase.
+	 * @param pw passphrase, not retained
+	 */
+	public E521PrivateKey(byte[] pw) {
+		BigInteger s = ECC.privateScalar(pw);
+		secret = s.toByteArray();
+		v = ECPoint.multByScalar(s, ECPoint.G);
+		encoded = v.ptToBytes();
+	}
+
+	/**
+	 * Getter for the public key
+	 * @return V = s*G
+	 */
+	public ECPoint getPublicKey() {
+		return v;
+	}
+
+	/**
+	 * Getter for the 67-byte encoding of the public key
+	 * @return a copy of V.ptToBytes()
+	 */
+	public byte[] getEncodedPublicKey() {
+		return encoded.clone();
+	}
+
+	/**
+	 * Decrypts a cryptogram, as ECC.ECDecrypt does with the passphrase.
+	 * @param Z ECPoint used for encrypt
+	 * @param c ciphertext byte array
+	 * @param t message auth code byte array
+	 * @return decrypted message, or null if the tag does not match
+	 */
+	public byte[] decrypt(ECPoint Z, byte[] c, byte[] t) {
+		return ECC.decrypt(scalar(), Z, c, t);
+	}
+
+	/**
+	 * Decrypts a cryptogram file into out, as ECC.ECDecrypt does with the passphrase.
+	 * If this returns false, everything written to out must be discarded.
+	 * @param in the cryptogram file
+	 * @param out message sink
+	 * @return true if, and only if, the tag matches
+	 * @throws IOException if reading or writing fails
+	 */
+	public boolean decrypt(FileChannel in, WritableByteChannel out) throws IOException {
+		return ECC.decrypt(scalar(), in, out);
+	}
+
+	/**
+	 * Signs a message, as ECC.sign does with the passphrase.
+	 * @param m the input to sign
+	 * @return signature byte array (h, z)
+	 * @throws IOException 
+	 */
+	public byte[] sign(byte[] m) throws IOException {
+		return ECC.sign(scalar(), m);
+	}
+
+	/**
+	 * Overwrites the private key. Further decrypt or sign calls fail.
+	 */
+	@Override
+	public void close() {
+		synchronized (secret) {
+			closed = true;
+			Arrays.fill(secret, (byte) 0);
+		}
+	}
+
+	private BigInteger scalar() {
+		synchronized (secret) {
+			if (closed) {
+				throw new IllegalStateException("The private key has been closed.");
+			}
+			return new BigInteger(secret);
+		}
+	}
+}
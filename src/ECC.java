@@ -1,9 +1,15 @@
 
-import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
 
 /**
@@ -14,6 +20,11 @@ import java.util.Arrays;
  */
 public class ECC {
 	
+	/**
+	 * Signatures per task in verifyBatch, each task shares one inversion.
+	 */
+	private static final int BATCH_CHUNK = 64;
+	
 	/**
 	 * Number of points n on E521 Edwards Curve.
 	 * n=4r, where: r= 2^519 - 337554763258501705789107630418782636071904961214051226618635150085779108655765.
@@ -26,15 +37,23 @@ public class ECC {
 	 * @param pw passphrase used to generate key pair
 	 */
 	public static ECPoint keyPair(byte[] pw) {
-		//s = KMACXOF256(pw, , 512, K);
-		byte[] temp = SHA3.KMACXOF256(pw,"".getBytes(), 512, "K".getBytes());
-		//s = 4s; s-->private key
-		BigInteger s = BigInteger.valueOf(4L).multiply(new BigInteger(temp));
+		//s = 4*KMACXOF256(pw, , 512, K); s-->private key
+		BigInteger s = privateScalar(pw);
 		//V = s*G; key pair: (s, V)
 		ECPoint v = ECPoint.multByScalar(s, ECPoint.G);
 		return v;
 	}
 	
+	/**
+	 * Derives the private key s = 4 * KMACXOF256(pw, "", 512, "K") from a passphrase.
+	 * @param pw passphrase
+	 * @return the private key s
+	 */
+	static BigInteger privateScalar(byte[] pw) {
+		byte[] temp = SHA3.KMACXOF256(pw, "".getBytes(), 512, SHA3.Domain.K);
+		return BigInteger.valueOf(4L).multiply(new BigInteger(temp));
+	}
+	
 	/**
 	 * Encrypts user input under a given elliptic public key file.
 	 * 
@@ -45,6 +64,59 @@ public class ECC {
 	 * @throws IOException 
 	 */
 	public static byte[] ECEncrypt(ECPoint v, byte[] m, String outputOption) throws IOException {
+		SecureRandom r = new SecureRandom();
+		//k = Random(512)
+		byte[] temp = new byte[64];
+		r.nextBytes(temp);
+		//k = 4k
+		BigInteger k = BigInteger.valueOf(4L).multiply(new BigInteger(temp));
+		//W = k*V, only its x is used
+		BigInteger wx = ECPoint.multByScalarX(k, v);
+		//Z = k*G
+		ECPoint Z = ECPoint.multByScalar(k, ECPoint.G);
+		return encrypt(wx, Z, m);
+	}
+	
+	/**
+	 * Encrypts everything readable from in under a given elliptic public key and
+	 * writes the cryptogram (Z, c, t) to out: the 67-byte Z first, then c one chunk
+	 * at a time, then t. The same format as ECEncrypt(V, m, outputOption), with
+	 * memory use independent of the input length.
+	 * 
+	 * @param v the public key
+	 * @param in message source, read to its end
+	 * @param out cryptogram sink
+	 * @throws IOException if reading or writing fails
+	 */
+	public static void ECEncrypt(ECPoint v, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		SecureRandom r = new SecureRandom();
+		//k = Random(512)
+		byte[] temp = new byte[64];
+		r.nextBytes(temp);
+		//k = 4k
+		BigInteger k = BigInteger.valueOf(4L).multiply(new BigInteger(temp));
+		//W = k*V, only its x is used
+		BigInteger wx = ECPoint.multByScalarX(k, v);
+		//Z = k*G
+		ECPoint Z = ECPoint.multByScalar(k, ECPoint.G);
+		SymmetricEncryptDecrypt.writeFully(out, ByteBuffer.wrap(Z.ptToBytes()));
+		SHA3[] keys = keys(wx);
+		//c = KMACXOF256(ke, "", |m|, "PKE") XOR m
+		//t = KMACXOF256(ka, m, 512, "PKA")
+		SymmetricEncryptDecrypt.encryptChunks(keys[0], keys[1], in, out);
+	}
+	
+	/**
+	 * Encrypts user input under a prepared public key.
+	 * Same cryptogram as ECEncrypt(V, m, outputOption), with W = k*V taken from V's table.
+	 * 
+	 * @param v the prepared public key
+	 * @param m the input to be encrypted
+	 * @param outputOption console or file output choice
+	 * @return byte array of cryptogram
+	 * @throws IOException 
+	 */
+	public static byte[] ECEncrypt(PreparedPublicKey v, byte[] m, String outputOption) throws IOException {
 		SecureRandom r = new SecureRandom();
 		//k = Random(512)
 		byte[] temp = new byte[64];
@@ -52,28 +124,31 @@ public class ECC {
 		//k = 4k
 		BigInteger k = BigInteger.valueOf(4L).multiply(new BigInteger(temp));
 		//W = k*V
-		ECPoint w = ECPoint.multByScalar(k, v);
+		BigInteger wx = v.multByScalar(k).getX();
 		//Z = k*G
 		ECPoint Z = ECPoint.multByScalar(k, ECPoint.G);
+		return encrypt(wx, Z, m);
+	}
+	
+	/**
+	 * Builds the cryptogram (Z, c, t) from x of the shared point W = k*V and Z = k*G.
+	 */
+	private static byte[] encrypt(BigInteger wx, ECPoint Z, byte[] m) {
 		//(ke || ka) = KMACXOF256(Wx, , 1024, P)
-		byte[]keka = SHA3.KMACXOF256(w.getX().toByteArray(), "".getBytes(), 1024, "P".getBytes());
+		byte[]keka = SHA3.KMACXOF256(wx.toByteArray(), "".getBytes(), 1024, SHA3.Domain.P);
 		//c = KMACXOF256(ke, , |m|, PKE) XOR m
-		byte[] ke = Arrays.copyOfRange(keka, 0, 64);
-		byte[] b = SHA3.KMACXOF256(ke, "".getBytes(), m.length*8, "PKE".getBytes());
-		byte[] c = new byte[m.length];
-		for (int i = 0; i < c.length; i++) {
-			c[i] = (byte) (m[i] ^ b[i]);
-		}
+		byte[] z = Z.ptToBytes();
+		//cryptogram: (Z, c, t), c squeezed straight into place
+		byte[] res = new byte[z.length + m.length + 64];
+		System.arraycopy(z, 0, res, 0, z.length);
+		SHA3 ke = new SHA3();
+		ke.initKMACXOF256(Arrays.copyOfRange(keka, 0, 64), SHA3.Domain.PKE);
+		ke.squeezeXor(m, 0, res, z.length, m.length);
 		//t = KMACXOF256(ka, m, 512, PKA)
 		byte[] ka = Arrays.copyOfRange(keka, 64, 128);
-		byte[] t = SHA3.KMACXOF256(ka, m, 512, "PKA".getBytes());
-		byte[] z = Z.ptToBytes();
-		//cryptogram: (Z, c, t)
-		ByteArrayOutputStream res = new ByteArrayOutputStream();
-		res.write(z);
-		res.write(c);
-		res.write(t);
-		return res.toByteArray();	
+		byte[] t = SHA3.KMACXOF256(ka, m, 512, SHA3.Domain.PKA);
+		System.arraycopy(t, 0, res, z.length + m.length, t.length);
+		return res;	
 	}
 	
 	/**
@@ -86,31 +161,127 @@ public class ECC {
 	 * @return decrypted message (byte array)
 	 */
 	public static byte[] ECDecrypt(byte[] pw, ECPoint Z, byte[] c, byte[] t) {
-		//s = KMACXOF256(pw, , 512, K)
-		byte[] temp = SHA3.KMACXOF256(pw, "".getBytes(), 512, "K".getBytes());
-		//s = 4s
-		BigInteger s = BigInteger.valueOf(4L).multiply(new BigInteger(temp));
-		//W = s*Z
-		ECPoint w = ECPoint.multByScalar(s, Z);
+		//s = 4*KMACXOF256(pw, , 512, K)
+		byte[] m = decrypt(privateScalar(pw), Z, c, t);
+		if (m == null) {
+			System.out.println("t does not equal t-prime.");
+		}
+		return m;
+	}
+	
+	/**
+	 * Decrypts with an already derived private scalar, see ECDecrypt.
+	 * Prints nothing, a mismatched tag only returns null.
+	 * 
+	 * @param s the private key
+	 * @param Z ECPoint used for encrypt
+	 * @param c ciphertext byte array
+	 * @param t message auth code byte array
+	 * @return decrypted message (byte array)
+	 */
+	static byte[] decrypt(BigInteger s, ECPoint Z, byte[] c, byte[] t) {
+		//W = s*Z, only its x is used
+		BigInteger wx = ECPoint.multByScalarX(s, Z);
 		//(ke || ka) = KMACXOF256(Wx, , 1024, P)
-		byte[] keka = SHA3.KMACXOF256(w.getX().toByteArray(), "".getBytes(), 1024, "P".getBytes());
+		byte[] keka = SHA3.KMACXOF256(wx.toByteArray(), "".getBytes(), 1024, SHA3.Domain.P);
 		//m = KMACXOF256(ke, , |c|, PKE) XOR c
-		byte[] ke = Arrays.copyOfRange(keka, 0, 64);
-		byte[] b = SHA3.KMACXOF256(ke, "".getBytes(), c.length*8, "PKE".getBytes());
+		SHA3 ke = new SHA3();
+		ke.initKMACXOF256(Arrays.copyOfRange(keka, 0, 64), SHA3.Domain.PKE);
 		byte[] m = new byte[c.length];
-		for (int i = 0; i < m.length; i++) {
-			m[i] = (byte) (b[i] ^ c[i]);
-		}
+		ke.squeezeXor(c, 0, m, 0, c.length);
 		//t = KMACXOF256(ka, m, 512, PKA)
 		byte[] ka = Arrays.copyOfRange(keka, 64, 128);
-		byte[] tp = SHA3.KMACXOF256(ka, m, 512, "PKA".getBytes());
+		byte[] tp = SHA3.KMACXOF256(ka, m, 512, SHA3.Domain.PKA);
 		//accept if, and only if, t = t
-		boolean isValid = Arrays.equals(t, tp);
-		if(isValid) {
-			return m;
-		} else {
-			System.out.println("t does not equal t-prime.");
-			return null;
+		return Arrays.equals(t, tp) ? m : null;
+	}
+	
+	/**
+	 * Decrypts an elliptic cryptogram file (Z, c, t) from a given password and
+	 * writes the message to out. Z and t are read from the head and the tail of
+	 * the file by position, then c is streamed in between.
+	 * The message is written before t can be checked: if this returns false,
+	 * everything written to out must be discarded.
+	 * 
+	 * @param pw the password used to create pub key.
+	 * @param in the cryptogram file
+	 * @param out message sink
+	 * @return true if, and only if, Z is a valid point and t' = t
+	 * @throws IOException if reading or writing fails
+	 */
+	public static boolean ECDecrypt(byte[] pw, FileChannel in, WritableByteChannel out) throws IOException {
+		return decrypt(privateScalar(pw), in, out);
+	}
+	
+	/**
+	 * Decrypts a cryptogram file with an already derived private scalar, see ECDecrypt.
+	 * 
+	 * @param s the private key
+	 * @param in the cryptogram file
+	 * @param out message sink
+	 * @return true if, and only if, Z is a valid point and t' = t
+	 * @throws IOException if reading or writing fails
+	 */
+	static boolean decrypt(BigInteger s, FileChannel in, WritableByteChannel out) throws IOException {
+		long end = in.size() - 64;
+		if (end < 67) {
+			return false;
+		}
+		ByteBuffer zb = ByteBuffer.allocate(67);
+		readFully(in, zb, 0);
+		ByteBuffer tb = ByteBuffer.allocate(64);
+		readFully(in, tb, end);
+		ECPoint Z;
+		try {
+			Z = ECPoint.bytesToPt(zb.array());
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		//W = s*Z, only its x is used
+		BigInteger wx = ECPoint.multByScalarX(s, Z);
+		SHA3[] keys = keys(wx);
+		byte[] buf = new byte[SymmetricEncryptDecrypt.CHUNK];
+		for (long pos = 67; pos < end; ) {
+			int n = (int) Math.min(buf.length, end - pos);
+			readFully(in, ByteBuffer.wrap(buf, 0, n), pos);
+			//m = KMACXOF256(ke, "", |c|, "PKE") XOR c
+			keys[0].squeezeXor(buf, 0, buf, 0, n);
+			//t' = KMACXOF256(ka, m, 512, "PKA")
+			keys[1].update(buf, 0, n);
+			SymmetricEncryptDecrypt.writeFully(out, ByteBuffer.wrap(buf, 0, n));
+			pos += n;
+		}
+		byte[] tp = new byte[64];
+		keys[1].squeeze(tp, 0, tp.length);
+		//accept if, and only if, t' = t
+		return MessageDigest.isEqual(tp, tb.array());
+	}
+	
+	/**
+	 * Derives (ke || ka) from x of the shared point W.
+	 * @return the PKE keystream sponge and the PKA MAC sponge, both ready for use
+	 */
+	private static SHA3[] keys(BigInteger wx) {
+		//(ke || ka) = KMACXOF256(Wx, "", 1024, "P")
+		byte[] keka = SHA3.KMACXOF256(wx.toByteArray(), "".getBytes(), 1024, SHA3.Domain.P);
+		SHA3 ke = new SHA3();
+		ke.initKMACXOF256(Arrays.copyOfRange(keka, 0, 64), SHA3.Domain.PKE);
+		SHA3 ka = new SHA3();
+		ka.initKMACXOF256(Arrays.copyOfRange(keka, 64, 128), SHA3.Domain.PKA);
+		return new SHA3[] {ke, ka};
+	}
+	
+	/**
+	 * Reads b full starting at the given file position.
+	 * @throws EOFException if the file ends first
+	 */
+	private static void readFully(FileChannel in, ByteBuffer b, long pos) throws IOException {
+		while (b.hasRemaining()) {
+			int n = in.read(b, pos);
+			if (n < 0) {
+				throw new EOFException("Cryptogram file ended early.");
+			}
+			pos += n;
 		}
 	}
 	
@@ -122,18 +293,27 @@ public class ECC {
 	 * @throws IOException 
 	 */
 	public static byte[] sign(byte[] m, byte[] pw) throws IOException {
-		//s = KMACXOF256(pw, , 512, K)
-		byte[] tempS = SHA3.KMACXOF256(pw, "".getBytes(), 512, "K".getBytes());
-		//s = 4s
-		BigInteger s = BigInteger.valueOf(4L).multiply(new BigInteger(tempS));
+		//s = 4*KMACXOF256(pw, , 512, K)
+		return sign(privateScalar(pw), m);
+	}
+	
+	/**
+	 * Signs with an already derived private scalar, see sign(m, pw).
+	 * 
+	 * @param s the private key
+	 * @param m the input to sign
+	 * @return signature byte array (h, z)
+	 * @throws IOException 
+	 */
+	static byte[] sign(BigInteger s, byte[] m) throws IOException {
 		//k = KMACXOF256(s, m, 512, N)
-		byte[] tempK = SHA3.KMACXOF256(s.toByteArray(), m, 512, "N".getBytes());
+		byte[] tempK = SHA3.KMACXOF256(s.toByteArray(), m, 512, SHA3.Domain.N);
 		//k = 4k
 		BigInteger k = BigInteger.valueOf(4L).multiply(new BigInteger(tempK));
 		//U = k*G;
 		ECPoint u = ECPoint.multByScalar(k, ECPoint.G);
 		//h = KMACXOF256(Ux, m, 512, T)
-		BigInteger h = new BigInteger(SHA3.KMACXOF256(u.getX().toByteArray(), m, 512, "T".getBytes()));
+		BigInteger h = new BigInteger(SHA3.KMACXOF256(u.getX().toByteArray(), m, 512, SHA3.Domain.T));
 		//z = (k  hs) mod r
 		BigInteger z = (k.subtract(h.multiply(s))).mod(R);
 		//signature: (h, z)
@@ -155,15 +335,68 @@ public class ECC {
 		for (int i = 0; i < z.length; i++) {
 			z[i] = hz[64+i];
 		}
-		//z*G 
-		ECPoint zG = ECPoint.multByScalar(new BigInteger(z), ECPoint.G);
-		//h*V
-		ECPoint hV = ECPoint.multByScalar(new BigInteger(h), V);
-		//U = z*G + h*V
-		ECPoint u = zG.getSum(hV);
+		//U = z*G + h*V, both products over one doubling chain
+		ECPoint u = ECPoint.multByScalars(new BigInteger(z), ECPoint.G, new BigInteger(h), V);
 		//accept if, and only if, KMACXOF256(Ux, m, 512, T) = h
-		byte[] hp = SHA3.KMACXOF256(u.getX().toByteArray(), m, 512, "T".getBytes());
+		byte[] hp = SHA3.KMACXOF256(u.getX().toByteArray(), m, 512, SHA3.Domain.T);
 		boolean isValid = Arrays.equals(h, hp);
 		return isValid;
 	}
+	
+	/**
+	 * Verifies a signature under a prepared public key.
+	 * Same result as verify(hz, m, V), with U = z*G + h*V taken from the tables of G and V.
+	 * @param hz signature byte array
+	 * @param m message byte array
+	 * @param V prepared public key
+	 */
+	public static boolean verify(byte[] hz, byte[] m, PreparedPublicKey V) {
+		byte[] h = Arrays.copyOfRange(hz, 0, 64);
+		byte[] z = Arrays.copyOfRange(hz, 64, hz.length);
+		//U = z*G + h*V
+		ECPoint u = V.multByScalars(new BigInteger(z), new BigInteger(h));
+		//accept if, and only if, KMACXOF256(Ux, m, 512, "T") = h
+		byte[] hp = SHA3.KMACXOF256(u.getX().toByteArray(), m, 512, SHA3.Domain.T);
+		return Arrays.equals(h, hp);
+	}
+	
+	/**
+	 * Verifies many (signature, message, public key) tuples at once.
+	 * A signature (h, z) carries h = KMACXOF256(Ux, m, 512, "T") rather than U itself,
+	 * so every U = z*G + h*V has to be rebuilt and hashed; there is no combined
+	 * equation to check. What is shared instead: each task computes its U's in
+	 * projective form with one inversion for all of them, and tasks run in parallel.
+	 * @param hz signature byte arrays
+	 * @param m message byte arrays
+	 * @param V public keys
+	 * @return res[i] == verify(hz[i], m[i], V[i])
+	 */
+	public static boolean[] verifyBatch(byte[][] hz, byte[][] m, ECPoint[] V) {
+		if (m.length != hz.length || V.length != hz.length) {
+			throw new IllegalArgumentException("Signature, message and key arrays differ in length.");
+		}
+		boolean[] res = new boolean[hz.length];
+		IntStream.range(0, (hz.length + BATCH_CHUNK - 1) / BATCH_CHUNK).parallel().forEach(c -> {
+			int from = c * BATCH_CHUNK;
+			int n = Math.min(hz.length, from + BATCH_CHUNK) - from;
+			BigInteger[] z = new BigInteger[n];
+			BigInteger[] h = new BigInteger[n];
+			ECPoint[] g = new ECPoint[n];
+			ECPoint[] v = new ECPoint[n];
+			for (int i = 0; i < n; i++) {
+				h[i] = new BigInteger(Arrays.copyOfRange(hz[from + i], 0, 64));
+				z[i] = new BigInteger(Arrays.copyOfRange(hz[from + i], 64, hz[from + i].length));
+				g[i] = ECPoint.G;
+				v[i] = V[from + i];
+			}
+			//U = z*G + h*V
+			ECPoint[] u = ECPoint.multByScalars(z, g, h, v);
+			for (int i = 0; i < n; i++) {
+				//accept if, and only if, KMACXOF256(Ux, m, 512, "T") = h
+				byte[] hp = SHA3.KMACXOF256(u[i].getX().toByteArray(), m[from + i], 512, SHA3.Domain.T);
+				res[from + i] = Arrays.equals(Arrays.copyOfRange(hz[from + i], 0, 64), hp);
+			}
+		});
+		return res;
+	}
 }
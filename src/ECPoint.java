@@ -27,13 +27,13 @@ public class ECPoint {
 	 * Parameter for Edwards curve.
 	 * P := (2^521) - 1, a Mersenne prime defining the finite field Fp.
 	 */
-	private static final BigInteger P = BigInteger.valueOf(2L).pow(521).subtract(BigInteger.ONE);
+	static final BigInteger P = BigInteger.valueOf(2L).pow(521).subtract(BigInteger.ONE);
 	
 	/**
 	 * Parameter for Edwards curve.
 	 * d value to satisfy curve equation:x^2+y^2 = 1+dx^2y^2
 	 */
-	private static final BigInteger D = new BigInteger("-376014");
+	static final BigInteger D = new BigInteger("-376014");
 	
 	/**
 	 * Number of points n on E521 Edwards Curve.
@@ -43,8 +43,24 @@ public class ECPoint {
 	
 	/**
 	 * Public generator G:=(x0, y0) x0=4, y0=unique even number.
+	 * Read from the table file if there is one, see PointTables.
 	 */
-	public static ECPoint G = new ECPoint(BigInteger.valueOf(4L), false);
+	public static ECPoint G = PointTables.generator();
+	
+	/**
+	 * Comb table for G, loaded or built on first use.
+	 * Kept in a holder so that loading ECPoint does not pay for it.
+	 */
+	private static final class GComb {
+		static final FixedBaseComb COMB = PointTables.comb();
+	}
+	
+	/**
+	 * The comb table for G, for scalars reduced mod r.
+	 */
+	static FixedBaseComb gComb() {
+		return GComb.COMB;
+	}
 	
 	/**
 	 * Constructor for the neutral element.
@@ -69,6 +85,31 @@ public class ECPoint {
 		}
 	}
 	
+	/**
+	 * Constructor for coordinates that are already known to be on the curve,
+	 * e.g. the result of a group operation on valid points.
+	 * 
+	 * @param x the x-coord of the point, reduced mod p
+	 * @param y the y-coord of the point, reduced mod p
+	 * @param checked unused, distinguishes this constructor
+	 */
+	private ECPoint(BigInteger x, BigInteger y, boolean checked) {
+		myX = x;
+		myY = y;
+	}
+	
+	/**
+	 * Creates a point without re-checking the curve equation.
+	 * Only for coordinates produced by curve arithmetic on valid points.
+	 * 
+	 * @param x the x-coord of the point, reduced mod p
+	 * @param y the y-coord of the point, reduced mod p
+	 * @return the point (x, y)
+	 */
+	static ECPoint trusted(BigInteger x, BigInteger y) {
+		return new ECPoint(x, y, true);
+	}
+	
 
 	/**
 	 * Constructor for a curve point from its x coordinate 
@@ -147,23 +188,39 @@ public class ECPoint {
 	 */
 	public byte[] ptToBytes() {
 		byte[] xbt = myX.toByteArray();
-		int zer = 66 - xbt.length;
 		byte ybit = 1;
 		if (myY.mod(BigInteger.valueOf(2)).equals(BigInteger.ZERO)) {
 			ybit = 0;
 		}
+		//x < 2^521 takes at most 66 bytes, a shorter x is right-aligned after zero bytes
 		byte[] res = new byte[67];
-		int i;
-		for (i = 0; i < zer; i++) {
-			res[i] = 0;
-		}
-		for (i = 0; i < 66; i++) {
-			res[i] = xbt[i - zer];
-		}
+		System.arraycopy(xbt, 0, res, 66 - xbt.length, xbt.length);
 		res[66] = ybit;
 		return res;
 	}
 	
+	/**
+	 * Converts the 67-byte ptToBytes encoding back into an ECPoint,
+	 * recomputing y from x and the last byte (1 if y is odd).
+	 * @param b byte array representation of the ECPoint
+	 * @return the decoded ECPoint
+	 * @throws IllegalArgumentException if b is not the encoding of a curve point
+	 */
+	public static ECPoint bytesToPt(byte[] b) {
+		if (b.length != 67 || (b[66] != 0 && b[66] != 1)) {
+			throw new IllegalArgumentException("A point encoding is 66 bytes of x and one byte for the parity of y.");
+		}
+		BigInteger x = new BigInteger(1, java.util.Arrays.copyOf(b, 66));
+		if (x.compareTo(P) >= 0) {
+			throw new IllegalArgumentException("The x-coordinate is not reduced mod p.");
+		}
+		ECPoint pt = new ECPoint(x, b[66] == 1);
+		if (pt.myY == null) {
+			throw new IllegalArgumentException("No curve point has this x-coordinate.");
+		}
+		return pt;
+	}
+	
 	/**
 	 * Computes the sum of the current point and another point
 	 * using Edwards point addition formula:
@@ -172,26 +229,8 @@ public class ECPoint {
 	 * @return the new ECPoint resulting from the summation
 	 */
 	public ECPoint getSum(ECPoint otherPt) {
-		BigInteger x1 = myX;
-		BigInteger y1 = myY;
-		BigInteger x2 = otherPt.myX;
-		BigInteger y2 = otherPt.myY;
-		
-		//New x-coord numerator = 𝑥1𝑦2+𝑦1𝑥2
-		BigInteger xNum = x1.multiply(y2).add(y1.multiply(x2)).mod(P);
-		//New x-coord denominator = 1+𝑑𝑥1𝑥2𝑦1𝑦2
-		BigInteger xDenom = BigInteger.ONE.add(D.multiply(x1.multiply(x2.multiply(y1.multiply(y2))))).mod(P);
-		//New x-coord
-		BigInteger sumX = xNum.multiply(xDenom.modInverse(P)).mod(P);
-		
-		//New y-coord numerator = 𝑦1𝑦2−𝑥1𝑥2
-		BigInteger yNum = y1.multiply(y2).subtract(x1.multiply(x2)).mod(P);
-		//New y-coord denominator = 1−𝑑𝑥1𝑥2𝑦1𝑦2
-		BigInteger yDenom = BigInteger.ONE.subtract(D.multiply(x1.multiply(x2.multiply(y1.multiply(y2))))).mod(P);
-		//New y-coord
-		BigInteger sumY = yNum.multiply(yDenom.modInverse(P)).mod(P);
-		
-		return new ECPoint(sumX, sumY);
+		//both points lifted to extended coordinates, one inversion for the result
+		return ExtendedECPoint.fromAffine(this).add(ExtendedECPoint.fromAffine(otherPt)).toAffine();
 	}
 	
 	/**
@@ -209,27 +248,62 @@ public class ECPoint {
 	}
 	
 	/**
-	 * Multiplication by scalar, "Exponentiation" algorithm
+	 * Multiplication by scalar.
+	 * Multiples of G go through a precomputed comb, any other point through
+	 * width-5 NAF over its odd multiples (see WNaf).
+	 * A negative scalar multiplies the opposite point.
 	 * @param p the ECPoint to be multiplied
 	 * @param scalar the scalar by which to multiply
 	 * @return the scalar multiple of the ECPoint
 	 */
 	public static ECPoint multByScalar(BigInteger scalar, ECPoint p) {
-		//V = P
-		ECPoint V = p;
-		String s = scalar.toString(2);
-		//for i in range(k–1, -1, -1):
-		for (int i = s.length() - 1; i >= 0; i--) {
-			//V = V + V
-			V = V.getSum(V);
-			//if s[i] == 1:
-			if (s.charAt(i) == '1') {
-				//V = V + P
-				V = V.getSum(p);
-			}
+		if (p.equals(G)) {
+			//G has order r, so any scalar can be reduced into the comb's range
+			return GComb.COMB.multiply(scalar.mod(R));
+		}
+		return WNaf.multiply(scalar, p);
+	}
+	
+	/**
+	 * Computes only the x-coordinate of scalar*P, with an x-only Montgomery ladder
+	 * that takes the same number of steps for every scalar below 2^521.
+	 * For key agreement, where only x of the shared point is used.
+	 * @param scalar the scalar by which to multiply, any sign
+	 * @param p the ECPoint to be multiplied
+	 * @return the x-coordinate of the scalar multiple
+	 */
+	public static BigInteger multByScalarX(BigInteger scalar, ECPoint p) {
+		return MontgomeryLadder.multiplyX(scalar, p);
+	}
+	
+	/**
+	 * Computes a*P + b*Q in one pass, interleaving both scalars over a single
+	 * chain of doublings (Straus-Shamir with width-w NAF).
+	 * Cheaper than two multByScalar calls and a getSum.
+	 * @param a the scalar for p, any sign
+	 * @param p the first ECPoint
+	 * @param b the scalar for q, any sign
+	 * @param q the second ECPoint
+	 * @return the ECPoint a*P + b*Q
+	 */
+	public static ECPoint multByScalars(BigInteger a, ECPoint p, BigInteger b, ECPoint q) {
+		return WNaf.multiply(a, p, b, q);
+	}
+	
+	/**
+	 * Computes a[i]*P[i] + b[i]*Q[i] for every i, as multByScalars does for one,
+	 * but with a single modular inversion for the whole batch (Montgomery's trick).
+	 * @param a the scalars for p
+	 * @param p the first ECPoints
+	 * @param b the scalars for q
+	 * @param q the second ECPoints
+	 * @return the ECPoints a[i]*P[i] + b[i]*Q[i]
+	 */
+	public static ECPoint[] multByScalars(BigInteger[] a, ECPoint[] p, BigInteger[] b, ECPoint[] q) {
+		if (p.length != a.length || b.length != a.length || q.length != a.length) {
+			throw new IllegalArgumentException("Scalar and point arrays differ in length.");
 		}
-		//V = s·V
-		return V;
+		return WNaf.multiply(a, p, b, q);
 	}
 	
 
@@ -0,0 +1,234 @@
+import java.math.BigInteger;
+
+/**
+ * E521 point in extended twisted Edwards coordinates (X:Y:Z:T),
+ * where x = X/Z, y = Y/Z and x*y = T/Z.
+ * The curve is x^2+y^2 = 1+dx^2y^2, i.e. a twisted Edwards curve with a = 1,
+ * and the formulas below are complete for it, so no special cases are needed
+ * for doubling or for the neutral element.
+ * Coordinates are mutable FieldElements and every operation updates this
+ * point in place, so a scalar multiplication allocates nothing per step.
+ * Nothing here inverts modulo p; the only inversion happens in toAffine().
+ */
+final class ExtendedECPoint {
+
+	/**
+	 * -d, the curve constant d = -376014 enters the formulas as a small negative factor.
+	 */
+	static final int MINUS_D = 376014;
+
+	final FieldElement X = new FieldElement();
+	final FieldElement Y = new FieldElement(1);
+	final FieldElement Z = new FieldElement(1);
+	final FieldElement T = new FieldElement();
+
+	//scratch for the formulas
+	private final FieldElement a = new FieldElement();
+	private final FieldElement b = new FieldElement();
+	private final FieldElement c = new FieldElement();
+	private final FieldElement d = new FieldElement();
+	private final FieldElement e = new FieldElement();
+	private final FieldElement f = new FieldElement();
+	private final FieldElement g = new FieldElement();
+	private final FieldElement h = new FieldElement();
+
+	/**
+	 * Constructor for the neutral element (0:1:1:0).
+	 */
+	ExtendedECPoint() {
+	}
+
+	/**
+	 * Lifts an affine point to (x:y:1:xy).
+	 * @param p affine point
+	 * @return the same point in extended coordinates
+	 */
+	static ExtendedECPoint fromAffine(ECPoint p) {
+		ExtendedECPoint q = new ExtendedECPoint();
+		q.X.set(p.getX());
+		q.Y.set(p.getY());
+		q.T.mul(q.X, q.Y);
+		return q;
+	}
+
+	/**
+	 * this = q
+	 * @return this
+	 */
+	ExtendedECPoint set(ExtendedECPoint q) {
+		X.set(q.X);
+		Y.set(q.Y);
+		Z.set(q.Z);
+		T.set(q.T);
+		return this;
+	}
+
+	/**
+	 * this = -this, with -(x, y) = (-x, y).
+	 * @return this
+	 */
+	ExtendedECPoint negate() {
+		X.neg(X);
+		T.neg(T);
+		return this;
+	}
+
+	/**
+	 * this = 2 * this, dbl-2008-hwcd with a = 1 (4M + 4S).
+	 * @return this
+	 */
+	ExtendedECPoint dbl() {
+		a.sqr(X);
+		b.sqr(Y);
+		c.sqr(Z);
+		c.add(c, c);
+		e.add(X, Y);
+		e.sqr(e);
+		e.sub(e, a);
+		e.sub(e, b);
+		g.add(a, b);
+		f.sub(g, c);
+		h.sub(a, b);
+		return finish();
+	}
+
+	/**
+	 * this = this + q, add-2008-hwcd with a = 1 (9M).
+	 * @param q the point to add, may be this point
+	 * @return this
+	 */
+	ExtendedECPoint add(ExtendedECPoint q) {
+		d.mul(Z, q.Z);
+		return add(q, d);
+	}
+
+	/**
+	 * this = this + q for q with Z = 1, add-2008-hwcd (8M).
+	 * @param q the point to add, as returned by fromAffine
+	 * @return this
+	 */
+	ExtendedECPoint addAffine(ExtendedECPoint q) {
+		d.set(Z);
+		return add(q, d);
+	}
+
+	/**
+	 * this = this + q for a precomputed point (8M if q is affine, 9M otherwise).
+	 * @param q the point to add
+	 * @return this
+	 */
+	ExtendedECPoint addPrecomputed(PrecomputedPoint q) {
+		a.mul(X, q.x);
+		b.mul(Y, q.y);
+		c.mul(T, q.kt);
+		e.add(X, Y);
+		e.mul(e, q.xPlusY);
+		e.sub(e, a);
+		e.sub(e, b);
+		FieldElement zz = q.affine ? Z : d.mul(Z, q.z);
+		f.add(zz, c);
+		g.sub(zz, c);
+		h.sub(b, a);
+		return finish();
+	}
+
+	/**
+	 * this = this - q for a precomputed point.
+	 * Same as addPrecomputed on -q = (-x, y), where A and C change sign
+	 * and x + y becomes y - x.
+	 * @param q the point to subtract
+	 * @return this
+	 */
+	ExtendedECPoint subPrecomputed(PrecomputedPoint q) {
+		a.mul(X, q.x);
+		b.mul(Y, q.y);
+		c.mul(T, q.kt);
+		e.add(X, Y);
+		e.mul(e, q.yMinusX);
+		e.add(e, a);
+		e.sub(e, b);
+		FieldElement zz = q.affine ? Z : d.mul(Z, q.z);
+		f.sub(zz, c);
+		g.add(zz, c);
+		h.add(b, a);
+		return finish();
+	}
+
+	/**
+	 * Addition given zz = Z * q.Z.
+	 */
+	private ExtendedECPoint add(ExtendedECPoint q, FieldElement zz) {
+		a.mul(X, q.X);
+		b.mul(Y, q.Y);
+		//C = d * T * q.T = -(376014 * T * q.T)
+		c.mul(T, q.T);
+		c.mulSmall(c, MINUS_D);
+		e.add(X, Y);
+		h.add(q.X, q.Y);
+		e.mul(e, h);
+		e.sub(e, a);
+		e.sub(e, b);
+		//F = D - C, G = D + C
+		f.add(zz, c);
+		g.sub(zz, c);
+		h.sub(b, a);
+		return finish();
+	}
+
+	/**
+	 * X = EF, Y = GH, Z = FG, T = EH, shared by doubling and addition.
+	 */
+	private ExtendedECPoint finish() {
+		X.mul(e, f);
+		Y.mul(g, h);
+		Z.mul(f, g);
+		T.mul(e, h);
+		return this;
+	}
+
+	/**
+	 * Scales p[from..to-1] to Z = 1 (and T = xy) with a single inversion,
+	 * by Montgomery's trick: invert the product of all Z and peel off one factor per point.
+	 * @param p points, none of them with Z = 0
+	 * @param from first index
+	 * @param to end index, exclusive
+	 */
+	static void normalize(ExtendedECPoint[] p, int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		//prefix[i] = Z[from] * ... * Z[i]
+		FieldElement[] prefix = new FieldElement[to];
+		prefix[from] = new FieldElement().set(p[from].Z);
+		for (int i = from + 1; i < to; i++) {
+			prefix[i] = new FieldElement().mul(prefix[i - 1], p[i].Z);
+		}
+		FieldElement inv = new FieldElement().invert(prefix[to - 1]);
+		FieldElement zInv = new FieldElement();
+		for (int i = to - 1; i >= from; i--) {
+			ExtendedECPoint q = p[i];
+			//inv = 1/(Z[from] * ... * Z[i])
+			if (i > from) {
+				zInv.mul(inv, prefix[i - 1]);
+				inv.mul(inv, q.Z);
+			} else {
+				zInv.set(inv);
+			}
+			q.X.mul(q.X, zInv);
+			q.Y.mul(q.Y, zInv);
+			q.Z.set(1);
+			q.T.mul(q.X, q.Y);
+		}
+	}
+
+	/**
+	 * Converts back to affine coordinates with a single inversion.
+	 * @return the affine point
+	 */
+	ECPoint toAffine() {
+		a.invert(Z);
+		b.mul(X, a);
+		c.mul(Y, a);
+		return ECPoint.trusted(b.toBigInteger(), c.toBigInteger());
+	}
+}
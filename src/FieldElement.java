@@ -0,0 +1,476 @@
+import java.math.BigInteger;
+
+/**
+ * Mutable element of GF(p), p = 2^521 - 1, for the E521 point formulas.
+ * The value is kept in 18 limbs of 29 bits (18 * 29 = 522), so every limb
+ * product fits in 58 bits and a whole column of a product, including the
+ * wrap-around of the high half, fits in an unsigned 64-bit long.
+ * Reduction uses the Mersenne shape: 2^522 = 2 (mod p), so the part of a
+ * product above limb 17 is folded back into the low limbs times two.
+ * 
+ * Results are only partially reduced: limbs are below 2^29 except limb 0,
+ * which may reach 2^29 + 1, and the value may be p or above.
+ * toBigInteger(), equals() and isOdd() reduce fully.
+ * 
+ * All operations write into this element and allocate nothing, except
+ * inversion and the BigInteger conversions. Operands may be this element.
+ */
+final class FieldElement {
+
+	private static final int LIMBS = 18;
+
+	private static final int BITS = 29;
+
+	private static final long MASK = (1L << BITS) - 1;
+
+	/**
+	 * 4p = 2^523 - 4 with every limb at least 2^30 - 4,
+	 * so that a + 4p - b never goes negative limb by limb.
+	 */
+	private static final long[] FOUR_P = new long[LIMBS];
+
+	static {
+		FOUR_P[0] = (1L << 30) - 4;
+		for (int i = 1; i < LIMBS; i++) {
+			FOUR_P[i] = (1L << 30) - 2;
+		}
+	}
+
+	private final long[] l = new long[LIMBS];
+
+	/**
+	 * Constructor for zero.
+	 */
+	FieldElement() {
+	}
+
+	/**
+	 * Constructor for a small value.
+	 * @param v value in [0, 2^29)
+	 */
+	FieldElement(int v) {
+		l[0] = v;
+	}
+
+	/**
+	 * Constructor for v mod p.
+	 * @param v any integer
+	 */
+	FieldElement(BigInteger v) {
+		set(v);
+	}
+
+	/**
+	 * this = v mod p
+	 * @param v any integer
+	 * @return this
+	 */
+	FieldElement set(BigInteger v) {
+		byte[] b = v.mod(ECPoint.P).toByteArray();
+		return set(b, 0, b.length);
+	}
+
+	/**
+	 * this = the unsigned big-endian integer in b[off, off + len).
+	 * Nothing is reduced, the caller guarantees a value below p; the tables
+	 * of PointTables are read this way, without any BigInteger arithmetic.
+	 * @param b bytes
+	 * @param off offset of the most significant byte
+	 * @param len number of bytes
+	 * @return this
+	 */
+	FieldElement set(byte[] b, int off, int len) {
+		java.util.Arrays.fill(l, 0);
+		//little-endian bit position of each byte
+		for (int i = 0; i < len; i++) {
+			int bit = 8 * (len - 1 - i);
+			long x = b[off + i] & 0xFF;
+			if (x == 0) {
+				continue;
+			}
+			l[bit / BITS] |= (x << (bit % BITS)) & MASK;
+			if (bit % BITS > BITS - 8 && bit / BITS + 1 < LIMBS) {
+				l[bit / BITS + 1] |= x >>> (BITS - bit % BITS);
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * this = v
+	 * @param v value in [0, 2^29)
+	 * @return this
+	 */
+	FieldElement set(int v) {
+		java.util.Arrays.fill(l, 0);
+		l[0] = v;
+		return this;
+	}
+
+	/**
+	 * this = a
+	 * @param a source element
+	 * @return this
+	 */
+	FieldElement set(FieldElement a) {
+		System.arraycopy(a.l, 0, l, 0, LIMBS);
+		return this;
+	}
+
+	/**
+	 * Converts to the canonical integer in [0, p).
+	 * @return this mod p
+	 */
+	BigInteger toBigInteger() {
+		long[] c = canonical();
+		byte[] b = new byte[66];
+		for (int i = 0; i < b.length; i++) {
+			int bit = 8 * (b.length - 1 - i);
+			long x = c[bit / BITS] >>> (bit % BITS);
+			if (bit % BITS > BITS - 8 && bit / BITS + 1 < LIMBS) {
+				x |= c[bit / BITS + 1] << (BITS - bit % BITS);
+			}
+			b[i] = (byte) x;
+		}
+		return new BigInteger(1, b);
+	}
+
+	/**
+	 * this = a + b
+	 * @return this
+	 */
+	FieldElement add(FieldElement a, FieldElement b) {
+		for (int i = 0; i < LIMBS; i++) {
+			l[i] = a.l[i] + b.l[i];
+		}
+		carry(l);
+		return this;
+	}
+
+	/**
+	 * this = a - b
+	 * @return this
+	 */
+	FieldElement sub(FieldElement a, FieldElement b) {
+		for (int i = 0; i < LIMBS; i++) {
+			l[i] = a.l[i] + FOUR_P[i] - b.l[i];
+		}
+		carry(l);
+		return this;
+	}
+
+	/**
+	 * this = -a
+	 * @return this
+	 */
+	FieldElement neg(FieldElement a) {
+		for (int i = 0; i < LIMBS; i++) {
+			l[i] = FOUR_P[i] - a.l[i];
+		}
+		carry(l);
+		return this;
+	}
+
+	/**
+	 * this = a * k
+	 * @param k small factor in [0, 2^29)
+	 * @return this
+	 */
+	FieldElement mulSmall(FieldElement a, int k) {
+		for (int i = 0; i < LIMBS; i++) {
+			l[i] = a.l[i] * k;
+		}
+		carry(l);
+		return this;
+	}
+
+	/**
+	 * this = a * b
+	 * Column k collects a[i]b[k-i] and, from the wrapped high half, 2a[i]b[k+18-i].
+	 * Written out in full: the columns are independent sums the JIT can overlap,
+	 * where the looped form ran about 2.5 times slower.
+	 * @return this
+	 */
+	FieldElement mul(FieldElement a, FieldElement b) {
+		long[] x = a.l;
+		long[] y = b.l;
+		long x0 = x[0]; long x1 = x[1]; long x2 = x[2]; long x3 = x[3]; long x4 = x[4]; long x5 = x[5];
+		long x6 = x[6]; long x7 = x[7]; long x8 = x[8]; long x9 = x[9]; long x10 = x[10]; long x11 = x[11];
+		long x12 = x[12]; long x13 = x[13]; long x14 = x[14]; long x15 = x[15]; long x16 = x[16]; long x17 = x[17];
+		long y0 = y[0]; long y1 = y[1]; long y2 = y[2]; long y3 = y[3]; long y4 = y[4]; long y5 = y[5];
+		long y6 = y[6]; long y7 = y[7]; long y8 = y[8]; long y9 = y[9]; long y10 = y[10]; long y11 = y[11];
+		long y12 = y[12]; long y13 = y[13]; long y14 = y[14]; long y15 = y[15]; long y16 = y[16]; long y17 = y[17];
+		//doubled limbs for the wrapped half
+		long z1 = y1 << 1; long z2 = y2 << 1; long z3 = y3 << 1; long z4 = y4 << 1; long z5 = y5 << 1; long z6 = y6 << 1;
+		long z7 = y7 << 1; long z8 = y8 << 1; long z9 = y9 << 1; long z10 = y10 << 1; long z11 = y11 << 1; long z12 = y12 << 1;
+		long z13 = y13 << 1; long z14 = y14 << 1; long z15 = y15 << 1; long z16 = y16 << 1; long z17 = y17 << 1;
+		long s0 = x0 * y0 + x1 * z17 + x2 * z16 + x3 * z15 + x4 * z14 + x5 * z13
+				+ x6 * z12 + x7 * z11 + x8 * z10 + x9 * z9 + x10 * z8 + x11 * z7
+				+ x12 * z6 + x13 * z5 + x14 * z4 + x15 * z3 + x16 * z2 + x17 * z1;
+		long s1 = x0 * y1 + x1 * y0 + x2 * z17 + x3 * z16 + x4 * z15 + x5 * z14
+				+ x6 * z13 + x7 * z12 + x8 * z11 + x9 * z10 + x10 * z9 + x11 * z8
+				+ x12 * z7 + x13 * z6 + x14 * z5 + x15 * z4 + x16 * z3 + x17 * z2;
+		long s2 = x0 * y2 + x1 * y1 + x2 * y0 + x3 * z17 + x4 * z16 + x5 * z15
+				+ x6 * z14 + x7 * z13 + x8 * z12 + x9 * z11 + x10 * z10 + x11 * z9
+				+ x12 * z8 + x13 * z7 + x14 * z6 + x15 * z5 + x16 * z4 + x17 * z3;
+		long s3 = x0 * y3 + x1 * y2 + x2 * y1 + x3 * y0 + x4 * z17 + x5 * z16
+				+ x6 * z15 + x7 * z14 + x8 * z13 + x9 * z12 + x10 * z11 + x11 * z10
+				+ x12 * z9 + x13 * z8 + x14 * z7 + x15 * z6 + x16 * z5 + x17 * z4;
+		long s4 = x0 * y4 + x1 * y3 + x2 * y2 + x3 * y1 + x4 * y0 + x5 * z17
+				+ x6 * z16 + x7 * z15 + x8 * z14 + x9 * z13 + x10 * z12 + x11 * z11
+				+ x12 * z10 + x13 * z9 + x14 * z8 + x15 * z7 + x16 * z6 + x17 * z5;
+		long s5 = x0 * y5 + x1 * y4 + x2 * y3 + x3 * y2 + x4 * y1 + x5 * y0
+				+ x6 * z17 + x7 * z16 + x8 * z15 + x9 * z14 + x10 * z13 + x11 * z12
+				+ x12 * z11 + x13 * z10 + x14 * z9 + x15 * z8 + x16 * z7 + x17 * z6;
+		long s6 = x0 * y6 + x1 * y5 + x2 * y4 + x3 * y3 + x4 * y2 + x5 * y1
+				+ x6 * y0 + x7 * z17 + x8 * z16 + x9 * z15 + x10 * z14 + x11 * z13
+				+ x12 * z12 + x13 * z11 + x14 * z10 + x15 * z9 + x16 * z8 + x17 * z7;
+		long s7 = x0 * y7 + x1 * y6 + x2 * y5 + x3 * y4 + x4 * y3 + x5 * y2
+				+ x6 * y1 + x7 * y0 + x8 * z17 + x9 * z16 + x10 * z15 + x11 * z14
+				+ x12 * z13 + x13 * z12 + x14 * z11 + x15 * z10 + x16 * z9 + x17 * z8;
+		long s8 = x0 * y8 + x1 * y7 + x2 * y6 + x3 * y5 + x4 * y4 + x5 * y3
+				+ x6 * y2 + x7 * y1 + x8 * y0 + x9 * z17 + x10 * z16 + x11 * z15
+				+ x12 * z14 + x13 * z13 + x14 * z12 + x15 * z11 + x16 * z10 + x17 * z9;
+		long s9 = x0 * y9 + x1 * y8 + x2 * y7 + x3 * y6 + x4 * y5 + x5 * y4
+				+ x6 * y3 + x7 * y2 + x8 * y1 + x9 * y0 + x10 * z17 + x11 * z16
+				+ x12 * z15 + x13 * z14 + x14 * z13 + x15 * z12 + x16 * z11 + x17 * z10;
+		long s10 = x0 * y10 + x1 * y9 + x2 * y8 + x3 * y7 + x4 * y6 + x5 * y5
+				+ x6 * y4 + x7 * y3 + x8 * y2 + x9 * y1 + x10 * y0 + x11 * z17
+				+ x12 * z16 + x13 * z15 + x14 * z14 + x15 * z13 + x16 * z12 + x17 * z11;
+		long s11 = x0 * y11 + x1 * y10 + x2 * y9 + x3 * y8 + x4 * y7 + x5 * y6
+				+ x6 * y5 + x7 * y4 + x8 * y3 + x9 * y2 + x10 * y1 + x11 * y0
+				+ x12 * z17 + x13 * z16 + x14 * z15 + x15 * z14 + x16 * z13 + x17 * z12;
+		long s12 = x0 * y12 + x1 * y11 + x2 * y10 + x3 * y9 + x4 * y8 + x5 * y7
+				+ x6 * y6 + x7 * y5 + x8 * y4 + x9 * y3 + x10 * y2 + x11 * y1
+				+ x12 * y0 + x13 * z17 + x14 * z16 + x15 * z15 + x16 * z14 + x17 * z13;
+		long s13 = x0 * y13 + x1 * y12 + x2 * y11 + x3 * y10 + x4 * y9 + x5 * y8
+				+ x6 * y7 + x7 * y6 + x8 * y5 + x9 * y4 + x10 * y3 + x11 * y2
+				+ x12 * y1 + x13 * y0 + x14 * z17 + x15 * z16 + x16 * z15 + x17 * z14;
+		long s14 = x0 * y14 + x1 * y13 + x2 * y12 + x3 * y11 + x4 * y10 + x5 * y9
+				+ x6 * y8 + x7 * y7 + x8 * y6 + x9 * y5 + x10 * y4 + x11 * y3
+				+ x12 * y2 + x13 * y1 + x14 * y0 + x15 * z17 + x16 * z16 + x17 * z15;
+		long s15 = x0 * y15 + x1 * y14 + x2 * y13 + x3 * y12 + x4 * y11 + x5 * y10
+				+ x6 * y9 + x7 * y8 + x8 * y7 + x9 * y6 + x10 * y5 + x11 * y4
+				+ x12 * y3 + x13 * y2 + x14 * y1 + x15 * y0 + x16 * z17 + x17 * z16;
+		long s16 = x0 * y16 + x1 * y15 + x2 * y14 + x3 * y13 + x4 * y12 + x5 * y11
+				+ x6 * y10 + x7 * y9 + x8 * y8 + x9 * y7 + x10 * y6 + x11 * y5
+				+ x12 * y4 + x13 * y3 + x14 * y2 + x15 * y1 + x16 * y0 + x17 * z17;
+		long s17 = x0 * y17 + x1 * y16 + x2 * y15 + x3 * y14 + x4 * y13 + x5 * y12
+				+ x6 * y11 + x7 * y10 + x8 * y9 + x9 * y8 + x10 * y7 + x11 * y6
+				+ x12 * y5 + x13 * y4 + x14 * y3 + x15 * y2 + x16 * y1 + x17 * y0;
+		l[0] = s0; l[1] = s1; l[2] = s2; l[3] = s3; l[4] = s4; l[5] = s5;
+		l[6] = s6; l[7] = s7; l[8] = s8; l[9] = s9; l[10] = s10; l[11] = s11;
+		l[12] = s12; l[13] = s13; l[14] = s14; l[15] = s15; l[16] = s16; l[17] = s17;
+		carry(l);
+		return this;
+	}
+
+	/**
+	 * this = a^2
+	 * @return this
+	 */
+	FieldElement sqr(FieldElement a) {
+		long[] x = a.l;
+		long x0 = x[0]; long x1 = x[1]; long x2 = x[2]; long x3 = x[3]; long x4 = x[4]; long x5 = x[5];
+		long x6 = x[6]; long x7 = x[7]; long x8 = x[8]; long x9 = x[9]; long x10 = x[10]; long x11 = x[11];
+		long x12 = x[12]; long x13 = x[13]; long x14 = x[14]; long x15 = x[15]; long x16 = x[16]; long x17 = x[17];
+		//d: doubled limbs for cross terms, q: quadrupled for wrapped cross terms
+		long d1 = x1 << 1; long d2 = x2 << 1; long d3 = x3 << 1; long d4 = x4 << 1; long d5 = x5 << 1; long d6 = x6 << 1;
+		long d7 = x7 << 1; long d8 = x8 << 1; long d9 = x9 << 1; long d10 = x10 << 1; long d11 = x11 << 1; long d12 = x12 << 1;
+		long d13 = x13 << 1; long d14 = x14 << 1; long d15 = x15 << 1; long d16 = x16 << 1; long d17 = x17 << 1;
+		long q1 = x1 << 2; long q2 = x2 << 2; long q3 = x3 << 2; long q4 = x4 << 2; long q5 = x5 << 2; long q6 = x6 << 2;
+		long q7 = x7 << 2; long q8 = x8 << 2; long q9 = x9 << 2; long q10 = x10 << 2; long q11 = x11 << 2; long q12 = x12 << 2;
+		long q13 = x13 << 2; long q14 = x14 << 2; long q15 = x15 << 2; long q16 = x16 << 2; long q17 = x17 << 2;
+		long s0 = x0 * x0 + x1 * q17 + x2 * q16 + x3 * q15 + x4 * q14 + x5 * q13
+				+ x6 * q12 + x7 * q11 + x8 * q10 + x9 * d9;
+		long s1 = x0 * d1 + x2 * q17 + x3 * q16 + x4 * q15 + x5 * q14 + x6 * q13
+				+ x7 * q12 + x8 * q11 + x9 * q10;
+		long s2 = x0 * d2 + x1 * x1 + x3 * q17 + x4 * q16 + x5 * q15 + x6 * q14
+				+ x7 * q13 + x8 * q12 + x9 * q11 + x10 * d10;
+		long s3 = x0 * d3 + x1 * d2 + x4 * q17 + x5 * q16 + x6 * q15 + x7 * q14
+				+ x8 * q13 + x9 * q12 + x10 * q11;
+		long s4 = x0 * d4 + x1 * d3 + x2 * x2 + x5 * q17 + x6 * q16 + x7 * q15
+				+ x8 * q14 + x9 * q13 + x10 * q12 + x11 * d11;
+		long s5 = x0 * d5 + x1 * d4 + x2 * d3 + x6 * q17 + x7 * q16 + x8 * q15
+				+ x9 * q14 + x10 * q13 + x11 * q12;
+		long s6 = x0 * d6 + x1 * d5 + x2 * d4 + x3 * x3 + x7 * q17 + x8 * q16
+				+ x9 * q15 + x10 * q14 + x11 * q13 + x12 * d12;
+		long s7 = x0 * d7 + x1 * d6 + x2 * d5 + x3 * d4 + x8 * q17 + x9 * q16
+				+ x10 * q15 + x11 * q14 + x12 * q13;
+		long s8 = x0 * d8 + x1 * d7 + x2 * d6 + x3 * d5 + x4 * x4 + x9 * q17
+				+ x10 * q16 + x11 * q15 + x12 * q14 + x13 * d13;
+		long s9 = x0 * d9 + x1 * d8 + x2 * d7 + x3 * d6 + x4 * d5 + x10 * q17
+				+ x11 * q16 + x12 * q15 + x13 * q14;
+		long s10 = x0 * d10 + x1 * d9 + x2 * d8 + x3 * d7 + x4 * d6 + x5 * x5
+				+ x11 * q17 + x12 * q16 + x13 * q15 + x14 * d14;
+		long s11 = x0 * d11 + x1 * d10 + x2 * d9 + x3 * d8 + x4 * d7 + x5 * d6
+				+ x12 * q17 + x13 * q16 + x14 * q15;
+		long s12 = x0 * d12 + x1 * d11 + x2 * d10 + x3 * d9 + x4 * d8 + x5 * d7
+				+ x6 * x6 + x13 * q17 + x14 * q16 + x15 * d15;
+		long s13 = x0 * d13 + x1 * d12 + x2 * d11 + x3 * d10 + x4 * d9 + x5 * d8
+				+ x6 * d7 + x14 * q17 + x15 * q16;
+		long s14 = x0 * d14 + x1 * d13 + x2 * d12 + x3 * d11 + x4 * d10 + x5 * d9
+				+ x6 * d8 + x7 * x7 + x15 * q17 + x16 * d16;
+		long s15 = x0 * d15 + x1 * d14 + x2 * d13 + x3 * d12 + x4 * d11 + x5 * d10
+				+ x6 * d9 + x7 * d8 + x16 * q17;
+		long s16 = x0 * d16 + x1 * d15 + x2 * d14 + x3 * d13 + x4 * d12 + x5 * d11
+				+ x6 * d10 + x7 * d9 + x8 * x8 + x17 * d17;
+		long s17 = x0 * d17 + x1 * d16 + x2 * d15 + x3 * d14 + x4 * d13 + x5 * d12
+				+ x6 * d11 + x7 * d10 + x8 * d9;
+		l[0] = s0; l[1] = s1; l[2] = s2; l[3] = s3; l[4] = s4; l[5] = s5;
+		l[6] = s6; l[7] = s7; l[8] = s8; l[9] = s9; l[10] = s10; l[11] = s11;
+		l[12] = s12; l[13] = s13; l[14] = s14; l[15] = s15; l[16] = s16; l[17] = s17;
+		carry(l);
+		return this;
+	}
+
+	/**
+	 * this = a^(-1) = a^(p-2) = a^(2^521 - 3), by an addition chain on
+	 * the exponents 2^k - 1 (525 squarings, 13 multiplications).
+	 * The inverse of zero is zero.
+	 * @return this
+	 */
+	FieldElement invert(FieldElement a) {
+		FieldElement t = new FieldElement();
+		FieldElement u = new FieldElement();
+		FieldElement e3 = new FieldElement();
+		FieldElement e4 = new FieldElement();
+		FieldElement e7 = new FieldElement();
+		FieldElement e = new FieldElement();
+		//ek = a^(2^k-1): e2 = e1^2 * a, e3 = e2^2 * a, e4 = e2^(2^2) * e2, e7 = e3^(2^4) * e4
+		t.sqr(a);
+		u.mul(t, a);
+		t.sqr(u);
+		e3.mul(t, a);
+		t.sqr(u);
+		e.sqr(t);
+		e4.mul(e, u);
+		t.set(e3);
+		sqrn(t, u, 4);
+		e7.mul(t, e4);
+		//e(2k) = ek^(2^k) * ek, up to e512
+		e.set(e4);
+		for (int k = 4; k < 512; k <<= 1) {
+			t.set(e);
+			sqrn(t, u, k);
+			e.mul(t, u.set(e));
+		}
+		//e519 = e512^(2^7) * e7
+		t.set(e);
+		sqrn(t, u, 7);
+		e.mul(t, e7);
+		//a^(2^521-3) = e519^4 * a
+		t.sqr(e);
+		u.sqr(t);
+		return mul(u, a);
+	}
+
+	/**
+	 * x = x^(2^n), using t as scratch.
+	 */
+	private static void sqrn(FieldElement x, FieldElement t, int n) {
+		for (int i = 0; i < n; i += 2) {
+			t.sqr(x);
+			if (i + 1 < n) {
+				x.sqr(t);
+			} else {
+				x.set(t);
+			}
+		}
+	}
+
+	/**
+	 * Swaps a and b if swap is 1, leaves them if it is 0,
+	 * with the same memory accesses either way.
+	 * @param swap 0 or 1
+	 */
+	static void cswap(FieldElement a, FieldElement b, int swap) {
+		long mask = -(long) swap;
+		for (int i = 0; i < LIMBS; i++) {
+			long t = mask & (a.l[i] ^ b.l[i]);
+			a.l[i] ^= t;
+			b.l[i] ^= t;
+		}
+	}
+
+	/**
+	 * Tells whether the canonical value is zero.
+	 */
+	boolean isZero() {
+		long[] c = canonical();
+		long acc = 0;
+		for (int i = 0; i < LIMBS; i++) {
+			acc |= c[i];
+		}
+		return acc == 0;
+	}
+
+	/**
+	 * Tells whether the canonical value is odd.
+	 */
+	boolean isOdd() {
+		return (canonical()[0] & 1) != 0;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof FieldElement)) {
+			return false;
+		}
+		return java.util.Arrays.equals(canonical(), ((FieldElement) o).canonical());
+	}
+
+	@Override
+	public int hashCode() {
+		return java.util.Arrays.hashCode(canonical());
+	}
+
+	/**
+	 * Fully reduced copy of the limbs, value in [0, p).
+	 */
+	private long[] canonical() {
+		long[] c = l.clone();
+		//fold bit 521 and above twice, the second time at most a 1 comes down
+		for (int n = 0; n < 2; n++) {
+			long top = c[LIMBS - 1] >>> (BITS - 1);
+			c[LIMBS - 1] &= MASK >>> 1;
+			c[0] += top;
+			for (int i = 0; i < LIMBS - 1; i++) {
+				c[i + 1] += c[i] >>> BITS;
+				c[i] &= MASK;
+			}
+		}
+		//the only value left at or above p is p itself
+		boolean isP = c[LIMBS - 1] == MASK >>> 1;
+		for (int i = 0; i < LIMBS - 1; i++) {
+			isP &= c[i] == MASK;
+		}
+		if (isP) {
+			java.util.Arrays.fill(c, 0);
+		}
+		return c;
+	}
+
+	/**
+	 * Propagates carries twice around the ring, folding the carry out of
+	 * limb 17 back into limb 0 times two. Limbs are read as unsigned 64-bit
+	 * values and must stay below 2^64 - 2^36 on entry; on exit they are below 2^29 except limb 0,
+	 * which may reach 2^29 + 1.
+	 */
+	private static void carry(long[] r) {
+		for (int n = 0; n < 2; n++) {
+			long c = 0;
+			for (int i = 0; i < LIMBS; i++) {
+				long s = r[i] + c;
+				r[i] = s & MASK;
+				c = s >>> BITS;
+			}
+			r[0] += c << 1;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return toBigInteger().toString(16);
+	}
+}
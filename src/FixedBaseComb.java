@@ -0,0 +1,172 @@
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Lim-Lee comb for multiples of one fixed base point.
+ * The scalar's bits are read as TEETH rows of spacing bits each; column i
+ * gathers bit i of every row into an index u, and table[u] holds
+ * sum over the set bits j of u of 2^(j*spacing) * B. A multiplication is then
+ * spacing - 1 doublings and at most spacing mixed additions,
+ * against bits doublings and about bits/2 additions for double-and-add.
+ * The table is built once and never modified, so one comb can be shared by all threads.
+ */
+final class FixedBaseComb {
+
+	/**
+	 * Number of rows, 2^TEETH - 1 table entries.
+	 */
+	private static final int TEETH = 8;
+
+	/**
+	 * Number of table entries, 2^TEETH - 1.
+	 */
+	static final int SIZE = (1 << TEETH) - 1;
+
+	/**
+	 * Estimated bytes per PrecomputedPoint: 6 * (16 + 16 + 18 * 8) + 32.
+	 */
+	private static final long ENTRY_BYTES = 6 * (16 + 16 + 18 * 8) + 32;
+
+	/**
+	 * Bits per row.
+	 */
+	private final int spacing;
+
+	/**
+	 * table[u], u in [1, 2^TEETH), table[0] is unused.
+	 */
+	private final PrecomputedPoint[] table;
+
+	/**
+	 * Builds the comb for base, for scalars below 2^bits.
+	 * @param base the fixed point B
+	 * @param bits maximum bit length of the scalars
+	 */
+	FixedBaseComb(ECPoint base, int bits) {
+		spacing = spacing(bits);
+		ExtendedECPoint[] pts = new ExtendedECPoint[1 << TEETH];
+		//pts[2^j] = 2^(j*spacing) * B
+		ExtendedECPoint b = ExtendedECPoint.fromAffine(base);
+		for (int j = 0; j < TEETH; j++) {
+			pts[1 << j] = new ExtendedECPoint().set(b);
+			for (int i = 0; i < spacing; i++) {
+				b.dbl();
+			}
+		}
+		//every other entry is a smaller entry plus its lowest row
+		for (int u = 3; u < pts.length; u++) {
+			int low = u & -u;
+			if (low != u) {
+				pts[u] = new ExtendedECPoint().set(pts[u ^ low]).add(pts[low]);
+			}
+		}
+		ExtendedECPoint.normalize(pts, 1, pts.length);
+		table = new PrecomputedPoint[pts.length];
+		for (int u = 1; u < pts.length; u++) {
+			table[u] = new PrecomputedPoint(pts[u]);
+		}
+	}
+
+	/**
+	 * Wraps entries that were built earlier by the other constructor, see entries().
+	 * @param spacing bits per row, as returned by spacing(bits)
+	 * @param entries table[1], ..., table[SIZE], normalized to Z = 1
+	 */
+	FixedBaseComb(int spacing, PrecomputedPoint[] entries) {
+		if (entries.length != SIZE) {
+			throw new IllegalArgumentException("A comb table has " + SIZE + " entries.");
+		}
+		this.spacing = spacing;
+		table = new PrecomputedPoint[SIZE + 1];
+		System.arraycopy(entries, 0, table, 1, SIZE);
+	}
+
+	/**
+	 * Bits per row for scalars below 2^bits.
+	 * @param bits maximum bit length of the scalars
+	 * @return the spacing
+	 */
+	static int spacing(int bits) {
+		return (bits + TEETH - 1) / TEETH;
+	}
+
+	/**
+	 * Bits per row of this comb.
+	 * @return the spacing
+	 */
+	int spacing() {
+		return spacing;
+	}
+
+	/**
+	 * The table without its unused slot 0, normalized to Z = 1.
+	 * @return table[1], ..., table[SIZE]
+	 */
+	PrecomputedPoint[] entries() {
+		return Arrays.copyOfRange(table, 1, table.length);
+	}
+
+	/**
+	 * Computes k * B.
+	 * @param k scalar in [0, 2^bits)
+	 * @return the point k * B
+	 */
+	ECPoint multiply(BigInteger k) {
+		ExtendedECPoint V = new ExtendedECPoint();
+		for (int i = spacing - 1; i >= 0; i--) {
+			if (i < spacing - 1) {
+				V.dbl();
+			}
+			addColumn(V, k, i);
+		}
+		return V.toAffine();
+	}
+
+	/**
+	 * Computes ka * A + kb * B for the bases of two combs with the same spacing,
+	 * adding both columns on one shared chain of doublings.
+	 * @param a comb for A
+	 * @param ka scalar for A, in [0, 2^bits)
+	 * @param b comb for B
+	 * @param kb scalar for B, in [0, 2^bits)
+	 * @return the point ka * A + kb * B
+	 */
+	static ECPoint multiply(FixedBaseComb a, BigInteger ka, FixedBaseComb b, BigInteger kb) {
+		if (a.spacing != b.spacing) {
+			throw new IllegalArgumentException("Combs differ in spacing.");
+		}
+		ExtendedECPoint V = new ExtendedECPoint();
+		for (int i = a.spacing - 1; i >= 0; i--) {
+			if (i < a.spacing - 1) {
+				V.dbl();
+			}
+			a.addColumn(V, ka, i);
+			b.addColumn(V, kb, i);
+		}
+		return V.toAffine();
+	}
+
+	/**
+	 * V = V + table[u], u made of bit i of every row of k.
+	 */
+	private void addColumn(ExtendedECPoint V, BigInteger k, int i) {
+		int u = 0;
+		for (int j = 0; j < TEETH; j++) {
+			if (k.testBit(i + j * spacing)) {
+				u |= 1 << j;
+			}
+		}
+		if (u != 0) {
+			V.addPrecomputed(table[u]);
+		}
+	}
+
+	/**
+	 * Approximate heap footprint of the table: per entry, six field elements
+	 * of 18 longs each plus object headers.
+	 * @return size estimate in bytes
+	 */
+	long tableBytes() {
+		return (table.length - 1) * ENTRY_BYTES + 16 + 4L * table.length;
+	}
+}
@@ -0,0 +1,254 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * KT256, the 256-bit security member of the KangarooTwelve family, 
+ * as specified per RFC 9861 sec. 3.
+ * KT256 is built on TurboSHAKE256 (Keccak-p[1600, 12]) and hashes inputs longer 
+ * than one 8192-byte chunk as a tree: the chaining values of chunks 1..n-1 are
+ * computed on the common ForkJoinPool and absorbed in order into the final node.
+ * 
+ * Meant for fast non-adversarial integrity checks such as dedup fingerprints
+ * and replication checksums; the SP 800-185 functions in SHA3 remain the 
+ * default for everything else.
+ */
+public class KangarooTwelve {
+	
+	/**
+	 * Chunk size in bytes.
+	 */
+	private static final int B = 8192;
+	
+	/**
+	 * Size in bytes of the chaining value of one chunk.
+	 */
+	private static final int CV = 64;
+	
+	/**
+	 * Bytes of input read (or mapped) at a time, a whole number of chunks.
+	 */
+	private static final int WINDOW = 64 << 20;
+	
+	/**
+	 * Chunks hashed sequentially by one fork-join task.
+	 */
+	private static final int CHUNKS_PER_TASK = 4;
+	
+	/**
+	 * Domain separation bytes: single node, final node, chaining value.
+	 */
+	private static final byte SINGLE = 0x07, FINAL = 0x06, LEAF = 0x0B;
+	
+	/**
+	 * Marks the final node of a tree, 0x03 followed by seven zero bytes.
+	 */
+	private static final byte[] FINAL_NODE_HEADER = {0x03, 0, 0, 0, 0, 0, 0, 0};
+	
+	/**
+	 * Trailer of the final node after length_encode(n - 1).
+	 */
+	private static final byte[] FINAL_NODE_TRAILER = {(byte) 0xFF, (byte) 0xFF};
+	
+	/**
+	 * Source of windows of the message M.
+	 */
+	private interface Input {
+		/**
+		 * @param pos offset of the window in M
+		 * @param len length of the window
+		 * @return a buffer holding exactly the window
+		 */
+		ByteBuffer window(long pos, int len) throws IOException;
+	}
+	
+	/**
+	 * Not instantiable, all entry points are static.
+	 */
+	private KangarooTwelve() {}
+	
+	/**
+	 * KT256(M, C, L) as specified per RFC 9861 sec. 3.2.
+	 * 
+	 * @param M the message
+	 * @param C customization bitstring
+	 * @param L the requested output length in bits, a non-negative multiple of 8
+	 * @return the L-bit hash
+	 * @throws IllegalArgumentException if L is negative or not a whole number of bytes
+	 */
+	public static byte[] KT256(byte[] M, byte[] C, int L) {
+		try {
+			return hash((pos, len) -> ByteBuffer.wrap(M, (int) pos, len).slice(), M.length, C, L);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * KT256 of the whole content of a file, read through read-only mappings.
+	 * 
+	 * @param M open channel of the file to hash
+	 * @param C customization bitstring
+	 * @param L the requested output length in bits, a non-negative multiple of 8
+	 * @return the L-bit hash
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if L is negative or not a whole number of bytes
+	 */
+	public static byte[] KT256(FileChannel M, byte[] C, int L) throws IOException {
+		return hash((pos, len) -> M.map(FileChannel.MapMode.READ_ONLY, pos, len), M.size(), C, L);
+	}
+	
+	/**
+	 * Encodes x as its big-endian bytes without leading zeros followed by 
+	 * the number of those bytes, as specified per RFC 9861 sec. 3.3.
+	 * @param x a non-negative integer
+	 * @return length_encode(x)
+	 */
+	private static byte[] length_encode(long x) {
+		int n = 0;
+		while (n < 8 && (x >>> (8 * n)) != 0) {
+			n++;
+		}
+		byte[] O = new byte[n + 1];
+		for (int i = n - 1; i >= 0; i--) {
+			O[i] = (byte) (x & 0xFF);
+			x = x >>> 8;
+		}
+		O[n] = (byte) n;
+		return O;
+	}
+	
+	/**
+	 * KT256 of S = M || C || length_encode(|C|).
+	 * 
+	 * @param M windows of the message
+	 * @param size length of M in bytes
+	 * @param C customization bitstring
+	 * @param L the requested output length in bits, a non-negative multiple of 8
+	 * @return the L-bit hash
+	 * @throws IOException if a window cannot be read
+	 */
+	private static byte[] hash(Input M, long size, byte[] C, int L) throws IOException {
+		if (L < 0 || (L & 7) != 0) {
+			throw new IllegalArgumentException("Output length must be a non-negative multiple of 8 bits.");
+		}
+		byte[] encC = length_encode(C.length);
+		byte[] suffix = new byte[C.length + encC.length];
+		System.arraycopy(C, 0, suffix, 0, C.length);
+		System.arraycopy(encC, 0, suffix, C.length, encC.length);
+		long total = size + suffix.length;
+		byte[] result = new byte[L >>> 3];
+		SHA3 node = new SHA3();
+		
+		if (total <= B) {
+			node.initTurboSHAKE256(SINGLE);
+			absorb(node, M.window(0, (int) size), 0, size, suffix, 0, total);
+			node.squeeze(result, 0, result.length);
+			return result;
+		}
+		
+		//FinalNode = S_0 || 03 00 00 00 00 00 00 00
+		node.initTurboSHAKE256(FINAL);
+		absorb(node, M.window(0, (int) Math.min(B, size)), 0, size, suffix, 0, B);
+		node.update(FINAL_NODE_HEADER, 0, FINAL_NODE_HEADER.length);
+		//FinalNode = FinalNode || CV_i, CV_i = TurboSHAKE256(S_i, 0x0B, 512) for i = 1 to n-1
+		long n = (total + B - 1) / B;
+		int chunksPerWindow = WINDOW / B;
+		byte[] cvs = new byte[(int) Math.min(n - 1, chunksPerWindow) * CV];
+		for (long first = 1; first < n; first += chunksPerWindow) {
+			int count = (int) Math.min(chunksPerWindow, n - first);
+			long pos = Math.min(first * B, size);
+			int len = (int) (Math.min((first + count) * B, size) - pos);
+			ForkJoinPool.commonPool().invoke(new Chunks(M.window(pos, len), pos, size, suffix, total, first, cvs, 0, count));
+			node.update(cvs, 0, count * CV);
+		}
+		//FinalNode = FinalNode || length_encode(n-1) || FF FF
+		byte[] encN = length_encode(n - 1);
+		node.update(encN, 0, encN.length);
+		node.update(FINAL_NODE_TRAILER, 0, FINAL_NODE_TRAILER.length);
+		node.squeeze(result, 0, result.length);
+		return result;
+	}
+	
+	/**
+	 * Absorbs bytes [from, to) of S = M || suffix.
+	 * 
+	 * @param sha3 the sponge
+	 * @param window window of M that covers the M part of the range
+	 * @param windowPos offset of the window in M
+	 * @param size length of M in bytes
+	 * @param suffix C || length_encode(|C|)
+	 * @param from first byte of S to absorb
+	 * @param to one past the last byte of S to absorb
+	 */
+	private static void absorb(SHA3 sha3, ByteBuffer window, long windowPos, long size, byte[] suffix, long from, long to) {
+		if (from < size) {
+			ByteBuffer part = window.duplicate();
+			part.limit((int) (Math.min(to, size) - windowPos));
+			part.position((int) (from - windowPos));
+			sha3.update(part);
+		}
+		if (to > size) {
+			int start = (int) (Math.max(from, size) - size);
+			sha3.update(suffix, start, (int) (to - size) - start);
+		}
+	}
+	
+	/**
+	 * Computes the chaining values of a range of chunks of one window, 
+	 * splitting the range in halves until at most CHUNKS_PER_TASK chunks remain.
+	 */
+	private static final class Chunks extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final ByteBuffer window;
+		private final long windowPos, size, total;
+		private final byte[] suffix;
+		private final long first;
+		private final byte[] cvs;
+		private final int from, to;
+		
+		/**
+		 * @param window the window of M holding these chunks (may be empty past the end of M)
+		 * @param windowPos offset of the window in M
+		 * @param size length of M in bytes
+		 * @param suffix C || length_encode(|C|)
+		 * @param total length of S in bytes
+		 * @param first index of the chunk whose CV goes to cvs[0]
+		 * @param cvs output, CV bytes per chunk
+		 * @param from first chunk to hash, relative to first
+		 * @param to one past the last chunk to hash, relative to first
+		 */
+		Chunks(ByteBuffer window, long windowPos, long size, byte[] suffix, long total, long first, byte[] cvs, int from, int to) {
+			this.window = window;
+			this.windowPos = windowPos;
+			this.size = size;
+			this.suffix = suffix;
+			this.total = total;
+			this.first = first;
+			this.cvs = cvs;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from > CHUNKS_PER_TASK) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Chunks(window, windowPos, size, suffix, total, first, cvs, from, mid),
+						new Chunks(window, windowPos, size, suffix, total, first, cvs, mid, to));
+				return;
+			}
+			SHA3 leaf = new SHA3();
+			for (int i = from; i < to; i++) {
+				long start = (first + i) * B;
+				leaf.initTurboSHAKE256(LEAF);
+				absorb(leaf, window, windowPos, size, suffix, start, Math.min(start + B, total));
+				leaf.squeeze(cvs, i * CV, CV);
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A KMACXOF256 key and customization string absorbed once.
+ * The sponge state after "KMAC", S and bytepad(encode_string(K), 136) is kept 
+ * as a snapshot and copied for every message, so repeated MACs under the same 
+ * key skip the key prefix permutations and allocations.
+ * 
+ * Instances are immutable and may be shared between threads.
+ * 
+ * WARNING: this caches the library's legacy KMACXOF256, whose encode_string
+ * drops the bytes of K (see SHA3.encode_string). The output depends only on
+ * the length of K, S and the message, so it is NOT a MAC: anyone can compute
+ * it without the key. It is kept, package-private, only because hash, mac and
+ * SHA3Batch must keep producing their existing outputs. Use
+ * SHA3.initStandardKMACXOF256 for a keyed MAC.
+ */
+final class KmacKey {
+	
+	/**
+	 * Sponge state right after the key prefix has been absorbed.
+	 */
+	private final SHA3 prefix;
+	
+	/**
+	 * Absorbs the key prefix of KMACXOF256(K, ., ., S).
+	 * 
+	 * Validity Conditions: len(K)< 2^2040 and len(S)< 2^2040
+	 * @param K MAC key bitstring
+	 * @param S customization bitstring
+	 */
+	KmacKey(byte[] K, byte[] S) {
+		prefix = new SHA3();
+		prefix.initKMACXOF256(K, S);
+	}
+	
+	/**
+	 * Absorbs the key prefix of KMACXOF256(K, ., ., S) for a domain tag,
+	 * starting from the tag's cached customization state.
+	 * 
+	 * Validity Conditions: len(K)< 2^2040
+	 * @param K MAC key bitstring
+	 * @param S domain tag used as customization string
+	 */
+	KmacKey(byte[] K, SHA3.Domain S) {
+		prefix = new SHA3();
+		prefix.initKMACXOF256(K, S);
+	}
+	
+	/**
+	 * Returns a fresh sponge positioned right after the key prefix,
+	 * ready for update and squeeze calls.
+	 * @return a new sponge owned by the caller
+	 */
+	SHA3 newSponge() {
+		return new SHA3(prefix);
+	}
+	
+	/**
+	 * KMACXOF256 of X under this key, same result as SHA3.KMACXOF256(K, X, L, S).
+	 * 
+	 * @param X the main input bitstring.
+	 * @param L the requested output length in bits (integer)
+	 * @return the L-bit output
+	 */
+	byte[] KMACXOF256(byte[] X, int L) {
+		SHA3 sha3 = newSponge();
+		byte[] result = new byte[L >>> 3];
+		sha3.update(X, 0, X.length);
+		sha3.squeeze(result, 0, result.length);
+		return result;
+	}
+	
+	/**
+	 * KMACXOF256 of the remaining bytes of X under this key.
+	 * 
+	 * @param X the main input, consumed up to its limit
+	 * @param L the requested output length in bits (integer)
+	 * @return the L-bit output
+	 */
+	byte[] KMACXOF256(ByteBuffer X, int L) {
+		SHA3 sha3 = newSponge();
+		byte[] result = new byte[L >>> 3];
+		sha3.update(X);
+		sha3.squeeze(result, 0, result.length);
+		return result;
+	}
+}
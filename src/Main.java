@@ -21,6 +21,11 @@ public class Main {
 	
 	static String inputOption;
 	static String outputOption;
+	
+	/**
+	 * Decoded public keys, by their 67-byte encoding.
+	 */
+	static final PublicKeyCache publicKeys = new PublicKeyCache(64);
 
 	/**
 	 * Calls encryption/decryption methods, interacts with user.
@@ -352,18 +357,29 @@ public class Main {
 		}
 	}
 
+	/**
+	 * Helper method to decode a public key through the cache.
+	 * Prints the reason and returns null if the bytes are not a valid key.
+	 */
+	private static ECPoint publicKey(byte[] b) {
+		try {
+			return publicKeys.get(b);
+		} catch (IllegalArgumentException e) {
+			System.out.println("The public key is not valid: " + e.getMessage());
+			return null;
+		}
+	}
+	
 	/**
 	 *Helper method to get input data from user and call ECC encryption method.
 	 * Either prints result to console or file depending on user's choice. 
 	 */
 	private static void encryptFileECC() {
 		byte[] b = getPbKey(inputOption);
-		byte[] x = new byte[b.length - 1];
-		for (int i = 0; i < x.length; i++) {
-			x[i] = b[i];
+		ECPoint v = publicKey(b);
+		if (v == null) {
+			return;
 		}
-		boolean lsbEven = b[b.length - 1] == 1;
-		ECPoint v = new ECPoint(new BigInteger(x), lsbEven);
 		byte[] m = getMessage(inputOption);
 		byte[] crp = null;
 		try {
@@ -447,12 +463,10 @@ public class Main {
 		byte[] s = getSign(inputOption);
 		byte[] m = getMessage(inputOption);
 		byte[] b = getPbKey(inputOption);
-		byte[] x = new byte[b.length - 1];
-		for (int i = 0; i < x.length; i++) {
-			x[i] = b[i];
+		ECPoint v = publicKey(b);
+		if (v == null) {
+			return;
 		}
-		boolean lsbEven = b[b.length - 1] == 1;
-		ECPoint v = new ECPoint(new BigInteger(x), lsbEven);
 		boolean isValid = ECC.verify(s, m, v);
 		if (isValid) {
 			System.out.println("Signature is valid.");
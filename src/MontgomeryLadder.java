@@ -0,0 +1,156 @@
+import java.math.BigInteger;
+
+/**
+ * x-only scalar multiplication on E521 through its Montgomery form.
+ * The Edwards curve x^2+y^2 = 1+dx^2y^2 is birationally equivalent to
+ * Bv^2 = u^3 + Au^2 + u with A = 2(1+d)/(1-d), B = 4/(1-d),
+ * under u = (1+y)/(1-y), v = u/x.
+ * The ladder keeps only (U:Z) for kP and (k+1)P, with one conditional swap
+ * and one combined doubling and differential addition per bit, over a fixed
+ * number of bits. The Edwards x of kP is x = u/v, so v is recovered at the end
+ * from u(kP), u((k+1)P) and the base point (Okeya-Sakurai), which costs a
+ * handful of multiplications and shares the single final inversion.
+ */
+final class MontgomeryLadder {
+
+	/**
+	 * Minimum number of ladder steps, so the running time does not depend on
+	 * the size of the scalar for scalars below 2^521.
+	 */
+	private static final int STEPS = 521;
+
+	/**
+	 * 1 - d = 376015. The doubling formula z2 = E(AA + a24 E), a24 = d/(1-d)
+	 * (RFC 7748 form), is scaled by 1 - d on both coordinates so that only
+	 * small constants appear: x2 = (1-d) AA BB, z2 = E((1-d) AA + d E).
+	 */
+	private static final int ONE_MINUS_D = 376015;
+
+	private static final int MINUS_D = ExtendedECPoint.MINUS_D;
+
+	/**
+	 * 2A = 4(1+d)/(1-d)
+	 */
+	private static final FieldElement TWO_A;
+
+	/**
+	 * 2B = 8/(1-d)
+	 */
+	private static final FieldElement TWO_B;
+
+	static {
+		BigInteger p = ECPoint.P;
+		BigInteger inv = BigInteger.valueOf(ONE_MINUS_D).modInverse(p);
+		TWO_A = new FieldElement(BigInteger.valueOf(4).multiply(BigInteger.ONE.add(ECPoint.D)).multiply(inv));
+		TWO_B = new FieldElement(BigInteger.valueOf(8).multiply(inv));
+	}
+
+	private MontgomeryLadder() {
+	}
+
+	/**
+	 * Computes the x-coordinate of k*P.
+	 * Falls back to ECPoint.multByScalar when P or the result has x = 0
+	 * (the neutral element or (0, -1)) or k*P + P is the neutral element,
+	 * where the map to Montgomery form or the recovery of v is undefined.
+	 * @param k any scalar, a negative one negates the result
+	 * @param p the point to be multiplied
+	 * @return x of the point k*P
+	 */
+	static BigInteger multiplyX(BigInteger k, ECPoint p) {
+		FieldElement x1 = new FieldElement(p.getX());
+		FieldElement y1 = new FieldElement(p.getY());
+		FieldElement t1 = new FieldElement();
+		FieldElement t2 = new FieldElement();
+		FieldElement t3 = new FieldElement();
+		FieldElement t4 = new FieldElement();
+		//u1 = (1+y1)/(1-y1), v1 = u1/x1 = (1+y1)/((1-y1)x1), one inversion for both
+		FieldElement one = new FieldElement(1);
+		t1.sub(one, y1);
+		t1.mul(t1, x1);
+		if (t1.isZero()) {
+			return ECPoint.multByScalar(k, p).getX();
+		}
+		t1.invert(t1);
+		FieldElement v1 = new FieldElement().add(one, y1);
+		v1.mul(v1, t1);
+		FieldElement u1 = new FieldElement().mul(v1, x1);
+
+		BigInteger n = k.abs();
+		FieldElement x2 = new FieldElement(1);
+		FieldElement z2 = new FieldElement();
+		FieldElement x3 = new FieldElement().set(u1);
+		FieldElement z3 = new FieldElement(1);
+		FieldElement a = new FieldElement();
+		FieldElement aa = new FieldElement();
+		FieldElement b = new FieldElement();
+		FieldElement bb = new FieldElement();
+		FieldElement e = new FieldElement();
+		FieldElement c = new FieldElement();
+		FieldElement d = new FieldElement();
+		int swap = 0;
+		for (int i = Math.max(STEPS, n.bitLength()) - 1; i >= 0; i--) {
+			int bit = n.testBit(i) ? 1 : 0;
+			swap ^= bit;
+			FieldElement.cswap(x2, x3, swap);
+			FieldElement.cswap(z2, z3, swap);
+			swap = bit;
+			a.add(x2, z2);
+			aa.sqr(a);
+			b.sub(x2, z2);
+			bb.sqr(b);
+			e.sub(aa, bb);
+			c.add(x3, z3);
+			d.sub(x3, z3);
+			//d = DA, c = CB
+			d.mul(d, a);
+			c.mul(c, b);
+			x3.add(d, c);
+			x3.sqr(x3);
+			z3.sub(d, c);
+			z3.sqr(z3);
+			z3.mul(z3, u1);
+			x2.mul(aa, bb);
+			x2.mulSmall(x2, ONE_MINUS_D);
+			//z2 = E((1-d) AA + d E) = E(376015 AA - 376014 E)
+			t2.mulSmall(aa, ONE_MINUS_D);
+			t3.mulSmall(e, MINUS_D);
+			t2.sub(t2, t3);
+			z2.mul(e, t2);
+		}
+		FieldElement.cswap(x2, x3, swap);
+		FieldElement.cswap(z2, z3, swap);
+
+		//recover v of kP = (x2:z2) from (x3:z3) = (k+1)P and (u1, v1), projectively as (X':Y':Z')
+		//Y' = ((x2 + u1 z2 + 2A z2)(u1 x2 + z2) - 2A z2^2) z3 - (x2 - u1 z2)^2 x3
+		t1.mul(u1, z2);
+		t2.add(x2, t1);
+		t3.sub(x2, t1);
+		t3.sqr(t3);
+		t3.mul(t3, x3);
+		t1.mul(TWO_A, z2);
+		t2.add(t2, t1);
+		t4.mul(u1, x2);
+		t4.add(t4, z2);
+		t2.mul(t2, t4);
+		t1.mul(t1, z2);
+		t2.sub(t2, t1);
+		t2.mul(t2, z3);
+		//t2 = Y'
+		t2.sub(t2, t3);
+		t1.mul(TWO_B, v1);
+		t1.mul(t1, z2);
+		t1.mul(t1, z3);
+		//t1 = X' = t1 X2; Edwards x = u/v = X'/Y'
+		t1.mul(t1, x2);
+		if (t1.isZero() || t2.isZero()) {
+			return ECPoint.multByScalar(k, p).getX();
+		}
+		t2.invert(t2);
+		t1.mul(t1, t2);
+		if (k.signum() < 0) {
+			t1.neg(t1);
+		}
+		return t1.toBigInteger();
+	}
+}
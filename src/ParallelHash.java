@@ -0,0 +1,218 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ParallelHash256 and ParallelHashXOF256, as specified per NIST SP 800-185 sec. 6.
+ * The input is cut into B-byte blocks, each block is hashed with cSHAKE256 
+ * on the common ForkJoinPool, and the 512-bit block hashes are absorbed in order 
+ * by a final cSHAKE256 with function name "ParallelHash".
+ * 
+ * Inputs are processed in windows of at most WINDOW bytes and LEAF_BUDGET bytes 
+ * of block hashes, so the memory held stays bounded no matter how large the input 
+ * or how small B is.
+ */
+public class ParallelHash {
+	
+	/**
+	 * Function name of the final cSHAKE256.
+	 */
+	private static final byte[] N = "ParallelHash".getBytes();
+	
+	/**
+	 * Bytes of input read (or mapped) at a time.
+	 */
+	private static final int WINDOW = 64 << 20;
+	
+	/**
+	 * Size in bytes of the hash of one block, cSHAKE256(X_i, 512, "", "").
+	 */
+	private static final int LEAF = 64;
+	
+	/**
+	 * Bytes of block hashes held per window, which bounds the window for small B.
+	 */
+	private static final int LEAF_BUDGET = 4 << 20;
+	
+	/**
+	 * Blocks hashed sequentially by one fork-join task.
+	 */
+	private static final int LEAVES_PER_TASK = 4;
+	
+	/**
+	 * Source of input windows.
+	 */
+	private interface Input {
+		/**
+		 * @param pos offset of the window in the input
+		 * @param len length of the window
+		 * @return a buffer holding exactly the window
+		 */
+		ByteBuffer window(long pos, int len) throws IOException;
+	}
+	
+	/**
+	 * Not instantiable, all entry points are static.
+	 */
+	private ParallelHash() {}
+	
+	/**
+	 * ParallelHash256 as specified per NIST SP 800-185 sec. 6.3.
+	 * 
+	 * Validity Conditions: 0 < B < 2^2040 and len(S) < 2^2040
+	 * @param X the main input bitstring
+	 * @param B the block size in bytes
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring
+	 * @return the L-bit hash
+	 */
+	public static byte[] ParallelHash256(byte[] X, int B, int L, byte[] S) {
+		return hashBytes(X, B, L, S, false);
+	}
+	
+	/**
+	 * ParallelHashXOF256 as specified per NIST SP 800-185 sec. 6.3.1.
+	 * 
+	 * Validity Conditions: 0 < B < 2^2040 and len(S) < 2^2040
+	 * @param X the main input bitstring
+	 * @param B the block size in bytes
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring
+	 * @return the L-bit hash
+	 */
+	public static byte[] ParallelHashXOF256(byte[] X, int B, int L, byte[] S) {
+		return hashBytes(X, B, L, S, true);
+	}
+	
+	/**
+	 * ParallelHash256 of the whole content of a file, read through read-only mappings.
+	 * 
+	 * @param X open channel of the file to hash
+	 * @param B the block size in bytes
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring
+	 * @return the L-bit hash
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static byte[] ParallelHash256(FileChannel X, int B, int L, byte[] S) throws IOException {
+		return hash((pos, len) -> X.map(FileChannel.MapMode.READ_ONLY, pos, len), X.size(), B, L, S, false);
+	}
+	
+	/**
+	 * ParallelHashXOF256 of the whole content of a file, read through read-only mappings.
+	 * 
+	 * @param X open channel of the file to hash
+	 * @param B the block size in bytes
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring
+	 * @return the L-bit hash
+	 * @throws IOException if the file cannot be mapped
+	 */
+	public static byte[] ParallelHashXOF256(FileChannel X, int B, int L, byte[] S) throws IOException {
+		return hash((pos, len) -> X.map(FileChannel.MapMode.READ_ONLY, pos, len), X.size(), B, L, S, true);
+	}
+	
+	/**
+	 * Byte array front end of hash, which cannot fail with an IOException.
+	 */
+	private static byte[] hashBytes(byte[] X, int B, int L, byte[] S, boolean xof) {
+		try {
+			return hash((pos, len) -> ByteBuffer.wrap(X, (int) pos, len).slice(), X.length, B, L, S, xof);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * ParallelHash over an input of the given size.
+	 * 
+	 * @param X the input windows
+	 * @param size input length in bytes
+	 * @param B the block size in bytes
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring
+	 * @param xof true for ParallelHashXOF256 (right_encode(0) in place of L)
+	 * @return the L-bit hash
+	 * @throws IOException if a window cannot be read
+	 */
+	private static byte[] hash(Input X, long size, int B, int L, byte[] S, boolean xof) throws IOException {
+		if (B <= 0) {
+			throw new IllegalArgumentException("Block size must be positive.");
+		}
+		//1. n = ceil((len(X)/8) / B)
+		long n = (size + B - 1) / B;
+		//2. z = left_encode(B)
+		SHA3 z = new SHA3();
+		z.initStandardcSHAKE256(N, S);
+		byte[] encB = SHA3.left_encode(B);
+		z.update(encB, 0, encB.length);
+		//3. z = z || cSHAKE256(X_i, 512, "", "") for i = 0 to n-1
+		long blocksPerWindow = Math.max(1L, Math.min(WINDOW / B, LEAF_BUDGET / LEAF));
+		byte[] leaves = new byte[Math.toIntExact(Math.min(n, blocksPerWindow) * LEAF)];
+		for (long first = 0; first < n; first += blocksPerWindow) {
+			int count = (int) Math.min(blocksPerWindow, n - first);
+			long pos = first * B;
+			int len = (int) Math.min((long) count * B, size - pos);
+			ForkJoinPool.commonPool().invoke(new Leaves(X.window(pos, len), B, leaves, 0, count));
+			z.update(leaves, 0, Math.toIntExact((long) count * LEAF));
+		}
+		//4. z = z || right_encode(n) || right_encode(L)
+		byte[] encN = SHA3.right_encode(n);
+		byte[] encL = SHA3.right_encode(xof ? 0 : L);
+		z.update(encN, 0, encN.length);
+		z.update(encL, 0, encL.length);
+		//5. newX = cSHAKE256(z, L, "ParallelHash", S)
+		byte[] result = new byte[L >>> 3];
+		z.squeeze(result, 0, result.length);
+		return result;
+	}
+	
+	/**
+	 * Hashes a range of blocks of one window, splitting the range in halves 
+	 * until at most LEAVES_PER_TASK blocks remain.
+	 */
+	private static final class Leaves extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final ByteBuffer window;
+		private final int B;
+		private final byte[] leaves;
+		private final int from, to;
+		
+		/**
+		 * @param window the input window, block 0 starts at its position 0
+		 * @param B the block size in bytes
+		 * @param leaves output, LEAF bytes per block
+		 * @param from first block to hash
+		 * @param to one past the last block to hash
+		 */
+		Leaves(ByteBuffer window, int B, byte[] leaves, int from, int to) {
+			this.window = window;
+			this.B = B;
+			this.leaves = leaves;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from > LEAVES_PER_TASK) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new Leaves(window, B, leaves, from, mid), new Leaves(window, B, leaves, mid, to));
+				return;
+			}
+			SHA3 leaf = new SHA3();
+			for (int i = from; i < to; i++) {
+				ByteBuffer block = window.duplicate();
+				block.limit((int) Math.min((long) (i + 1) * B, window.limit()));
+				block.position(i * B);
+				leaf.initStandardcSHAKE256(null, null);
+				leaf.update(block);
+				leaf.squeeze(leaves, i * LEAF, LEAF);
+			}
+		}
+	}
+}
@@ -0,0 +1,344 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Precomputed tables for the generator G, kept in a binary file so that a new JVM
+ * does not have to decompress G and rebuild its tables on every start.
+ * The tables are looked up first as the classpath resource {@value #RESOURCE},
+ * then in the file named by the system property {@value #PATH_PROPERTY}, if set,
+ * which is mapped read-only. The core build runs main to put the resource in the jar.
+ * If neither holds a valid table set, the tables are built in memory on first use
+ * and, if the property is set, written to that file for the next start.
+ * There is no default file: one in a shared directory such as java.io.tmpdir
+ * would be rebuilt and rewritten by whoever starts first.
+ *
+ * File layout, all integers big-endian:
+ * <pre>
+ * int magic "E521", int version
+ * G:                         x, y
+ * comb for G: int spacing, int n, n times x, y
+ * odd multiples of G:  int n, n times x, y
+ * int CRC32 of all bytes before it
+ * </pre>
+ * Each coordinate takes 66 unsigned bytes. A file is used only if its SHAKE256
+ * is DIGEST, the digest of the canonical tables, else the whole file is ignored.
+ * This costs one pass of SHAKE256 over the file, where checking the points
+ * themselves would cost as much as building them.
+ */
+final class PointTables {
+
+	/**
+	 * Classpath resource holding prebuilt tables.
+	 */
+	static final String RESOURCE = "/e521-tables.bin";
+
+	/**
+	 * System property naming the table file.
+	 */
+	static final String PATH_PROPERTY = "e521.tables";
+
+	/**
+	 * "E521" in ASCII.
+	 */
+	private static final int MAGIC = 0x45353231;
+
+	/**
+	 * Format version, to be raised with any change of layout or table parameters.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * SHAKE256 of the canonical table file of this version, as written by main.
+	 * To be regenerated together with any change of VERSION.
+	 */
+	static final String DIGEST = "476783C7307ED0CD7C99678DD4B52E69895D423E687AE5365E1550CD1A1FD326A361AA6B052AEB14BF9A47A35D38E85CE1017762DF2593585E7BDB45F8C99DF0";
+
+	/**
+	 * Bytes per coordinate.
+	 */
+	private static final int COORD_BYTES = 66;
+
+	/**
+	 * Tables read from the resource or the file, or null if there were none.
+	 * Loading only needs P and D of ECPoint, never G itself, since ECPoint
+	 * takes its G from here during its own initialization.
+	 */
+	private static final PointTables LOADED = load();
+
+	/**
+	 * Tables built in memory when nothing could be loaded, built on first use.
+	 */
+	private static final class Built {
+		static final PointTables TABLES = rebuild();
+	}
+
+	private final ECPoint g;
+	private final FixedBaseComb comb;
+	private final PrecomputedPoint[] odd;
+
+	private PointTables(ECPoint g, FixedBaseComb comb, PrecomputedPoint[] odd) {
+		this.g = g;
+		this.comb = comb;
+		this.odd = odd;
+	}
+
+	/**
+	 * The generator G, decompressed from x = 4 only if no table file was loaded.
+	 * @return G
+	 */
+	static ECPoint generator() {
+		if (LOADED != null) {
+			return LOADED.g;
+		}
+		return new ECPoint(BigInteger.valueOf(4L), false);
+	}
+
+	/**
+	 * The comb for G, for scalars below 2^bitLength(r).
+	 * @return the comb
+	 */
+	static FixedBaseComb comb() {
+		return (LOADED != null ? LOADED : Built.TABLES).comb;
+	}
+
+	/**
+	 * The odd multiples G, 3G, ..., normalized to Z = 1, for wNAF of width WNaf.G_WIDTH.
+	 * @return the table, not to be modified
+	 */
+	static PrecomputedPoint[] oddMultiples() {
+		return (LOADED != null ? LOADED : Built.TABLES).odd;
+	}
+
+	/**
+	 * The table file named by the system property.
+	 * @return the path, or null if the property is not set
+	 */
+	static Path path() {
+		String p = System.getProperty(PATH_PROPERTY);
+		if (p == null || p.isEmpty()) {
+			return null;
+		}
+		return Paths.get(p);
+	}
+
+	/**
+	 * Reads the tables from the resource or else from the configured file.
+	 * @return the tables, or null if neither holds a valid set
+	 */
+	private static PointTables load() {
+		try (InputStream in = PointTables.class.getResourceAsStream(RESOURCE)) {
+			if (in != null) {
+				PointTables t = parse(ByteBuffer.wrap(in.readAllBytes()));
+				if (t != null) {
+					return t;
+				}
+			}
+		} catch (IOException e) {
+			//fall through to the file
+		}
+		Path path;
+		try {
+			path = path();
+		} catch (SecurityException e) {
+			return null;
+		}
+		return path == null ? null : read(path);
+	}
+
+	/**
+	 * Maps a table file read-only and checks it.
+	 * @param path the table file
+	 * @return the tables, or null if the file cannot be read or is not a valid table set
+	 */
+	static PointTables read(Path path) {
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			return parse(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+		} catch (IOException | UnsupportedOperationException | SecurityException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the tables and, if the system property names a file, writes them there
+	 * for the next start, replacing a missing or rejected file.
+	 * @return the tables
+	 */
+	private static PointTables rebuild() {
+		PointTables t = build();
+		try {
+			Path path = path();
+			if (path != null) {
+				t.write(path);
+			}
+		} catch (IOException | SecurityException e) {
+			//an unwritable file only costs the next start a rebuild
+		}
+		return t;
+	}
+
+	/**
+	 * Builds the tables in memory.
+	 * @return the tables
+	 */
+	private static PointTables build() {
+		ECPoint g = ECPoint.G;
+		return new PointTables(g, new FixedBaseComb(g, ECPoint.R.bitLength()),
+				WNaf.normalizedOddMultiples(g, WNaf.G_WIDTH));
+	}
+
+	/**
+	 * Builds the tables and writes them to the given file, to be shipped as the
+	 * resource or named by the system property.
+	 * @param args the path of the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: PointTables <file>");
+			System.exit(1);
+		}
+		build().write(Paths.get(args[0]));
+	}
+
+	/**
+	 * Checks and decodes a table file.
+	 * The digest check stands for all checks on the contents: only the canonical
+	 * tables for G are accepted, so no point needs to be checked or recomputed.
+	 * @param b the file contents, from position 0
+	 * @return the tables, or null if the file is not the canonical table set of this version
+	 */
+	private static PointTables parse(ByteBuffer b) {
+		int spacing = FixedBaseComb.spacing(ECPoint.R.bitLength());
+		int combSize = FixedBaseComb.SIZE;
+		int oddSize = 1 << (WNaf.G_WIDTH - 2);
+		if (b.remaining() != size(combSize, oddSize)) {
+			return null;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(b.duplicate().limit(b.limit() - 4));
+		if ((int) crc.getValue() != b.getInt(b.limit() - 4) || !DIGEST.equals(digest(b))) {
+			return null;
+		}
+		//magic, version
+		b.position(8);
+		BigInteger x = readCoord(b);
+		BigInteger y = readCoord(b);
+		ECPoint g = ECPoint.trusted(x, y);
+		//spacing, combSize
+		b.position(b.position() + 8);
+		PrecomputedPoint[] comb = readTable(b, combSize);
+		//oddSize
+		b.position(b.position() + 4);
+		PrecomputedPoint[] odd = readTable(b, oddSize);
+		return new PointTables(g, new FixedBaseComb(spacing, comb), odd);
+	}
+
+	/**
+	 * SHAKE256 of a whole table file, 512 bits.
+	 * @param b the file contents, from position 0, left unchanged
+	 * @return the digest in hex
+	 */
+	static String digest(ByteBuffer b) {
+		SHA3 sha3 = new SHA3();
+		sha3.initStandardcSHAKE256(null, null);
+		sha3.update(b.duplicate());
+		byte[] d = new byte[64];
+		sha3.squeeze(d, 0, d.length);
+		return SHA3.bytesToHex(d);
+	}
+
+	/**
+	 * Reads n points as x, y.
+	 * @return the points, with Z = 1
+	 */
+	private static PrecomputedPoint[] readTable(ByteBuffer b, int n) {
+		PrecomputedPoint[] t = new PrecomputedPoint[n];
+		ExtendedECPoint p = new ExtendedECPoint();
+		byte[] c = new byte[COORD_BYTES];
+		for (int i = 0; i < n; i++) {
+			b.get(c);
+			p.X.set(c, 0, COORD_BYTES);
+			b.get(c);
+			p.Y.set(c, 0, COORD_BYTES);
+			p.T.mul(p.X, p.Y);
+			t[i] = new PrecomputedPoint(p);
+		}
+		return t;
+	}
+
+	private static BigInteger readCoord(ByteBuffer b) {
+		byte[] c = new byte[COORD_BYTES];
+		b.get(c);
+		return new BigInteger(1, c);
+	}
+
+	/**
+	 * File size for the given table sizes.
+	 */
+	private static int size(int combSize, int oddSize) {
+		return 4 + 4 + 2 * COORD_BYTES + 4 + 4 + combSize * 2 * COORD_BYTES
+				+ 4 + oddSize * 2 * COORD_BYTES + 4;
+	}
+
+	/**
+	 * Writes the tables to a temporary file next to target and moves it into place,
+	 * so that a concurrent reader never sees a partial file.
+	 * @param target the table file
+	 * @throws IOException if the file cannot be written
+	 */
+	void write(Path target) throws IOException {
+		PrecomputedPoint[] entries = comb.entries();
+		ByteBuffer b = ByteBuffer.allocate(size(entries.length, odd.length));
+		b.putInt(MAGIC).putInt(VERSION);
+		writeCoord(b, g.getX());
+		writeCoord(b, g.getY());
+		b.putInt(comb.spacing()).putInt(entries.length);
+		writeTable(b, entries);
+		b.putInt(odd.length);
+		writeTable(b, odd);
+		CRC32 crc = new CRC32();
+		crc.update(b.array(), 0, b.position());
+		b.putInt((int) crc.getValue());
+		b.flip();
+		Path dir = target.toAbsolutePath().getParent();
+		Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+				while (b.hasRemaining()) {
+					ch.write(b);
+				}
+			}
+			Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/**
+	 * Writes x and y of points normalized to Z = 1.
+	 */
+	private static void writeTable(ByteBuffer b, PrecomputedPoint[] t) {
+		for (PrecomputedPoint p : t) {
+			writeCoord(b, p.x.toBigInteger());
+			writeCoord(b, p.y.toBigInteger());
+		}
+	}
+
+	private static void writeCoord(ByteBuffer b, BigInteger c) {
+		byte[] v = c.toByteArray();
+		int off = v.length > COORD_BYTES ? v.length - COORD_BYTES : 0;
+		for (int i = v.length - off; i < COORD_BYTES; i++) {
+			b.put((byte) 0);
+		}
+		b.put(v, off, v.length - off);
+	}
+}
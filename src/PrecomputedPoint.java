@@ -0,0 +1,35 @@
+/**
+ * E521 point stored for repeated additions, with the products that do not
+ * depend on the running point folded in: x + y, y - x and 376014 * T
+ * (that is -d * T). Points normalized to Z = 1 are flagged affine, which
+ * saves the Z product in every addition.
+ * Instances are never modified after construction and can be shared between threads.
+ */
+final class PrecomputedPoint {
+
+	final FieldElement x = new FieldElement();
+	final FieldElement y = new FieldElement();
+	final FieldElement z = new FieldElement();
+	final FieldElement xPlusY = new FieldElement();
+	final FieldElement yMinusX = new FieldElement();
+	final FieldElement kt = new FieldElement();
+
+	/**
+	 * Whether z is 1.
+	 */
+	final boolean affine;
+
+	/**
+	 * Constructor from a point in extended coordinates.
+	 * @param p the point, not modified
+	 */
+	PrecomputedPoint(ExtendedECPoint p) {
+		x.set(p.X);
+		y.set(p.Y);
+		z.set(p.Z);
+		xPlusY.add(x, y);
+		yMinusX.sub(y, x);
+		kt.mulSmall(p.T, ExtendedECPoint.MINUS_D);
+		affine = z.equals(new FieldElement(1));
+	}
+}
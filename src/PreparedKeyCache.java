@@ -0,0 +1,133 @@
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * LRU cache of PreparedPublicKeys keyed by the 67-byte ptToBytes encoding,
+ * bounded by the total size of the tables rather than by a number of keys.
+ * When a new table pushes the total over the budget, least recently used
+ * keys are dropped until it fits again; the newest key is always kept.
+ * Safe for concurrent use; tables are built outside the lock.
+ */
+public class PreparedKeyCache {
+
+	/**
+	 * Memory budget in bytes.
+	 */
+	private final long budget;
+
+	/**
+	 * Access-ordered map, eldest entry first, guarded by this.
+	 */
+	private final LinkedHashMap<ByteBuffer, PreparedPublicKey> map = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long bytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Constructor for an empty cache.
+	 * @param budget maximum total table size in bytes
+	 */
+	public PreparedKeyCache(long budget) {
+		if (budget < 1) {
+			throw new IllegalArgumentException("Budget must be positive.");
+		}
+		this.budget = budget;
+	}
+
+	/**
+	 * Returns the prepared key for the given encoding, building its table on a miss.
+	 * @param encoded 67-byte ptToBytes encoding, not modified or retained
+	 * @return the prepared public key
+	 * @throws IllegalArgumentException if encoded is not a valid public key
+	 */
+	public PreparedPublicKey get(byte[] encoded) {
+		ByteBuffer key = ByteBuffer.wrap(encoded.clone());
+		synchronized (this) {
+			PreparedPublicKey v = map.get(key);
+			if (v != null) {
+				hits++;
+				return v;
+			}
+			misses++;
+		}
+		PreparedPublicKey v = new PreparedPublicKey(encoded);
+		synchronized (this) {
+			//another thread may have prepared the same key meanwhile
+			PreparedPublicKey old = map.putIfAbsent(key, v);
+			if (old != null) {
+				return old;
+			}
+			bytes += v.tableBytes();
+			Iterator<PreparedPublicKey> it = map.values().iterator();
+			while (bytes > budget && map.size() > 1) {
+				PreparedPublicKey eldest = it.next();
+				it.remove();
+				bytes -= eldest.tableBytes();
+				evictions++;
+			}
+		}
+		return v;
+	}
+
+	/**
+	 * Returns the prepared key for the given point.
+	 * @param v the public key
+	 * @return the prepared public key
+	 * @throws IllegalArgumentException if v is not a valid public key
+	 */
+	public PreparedPublicKey get(ECPoint v) {
+		return get(v.ptToBytes());
+	}
+
+	/**
+	 * Number of lookups answered from the cache.
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * Number of lookups that had to build a table.
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * Number of keys dropped to stay within the budget.
+	 */
+	public synchronized long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * Current number of keys.
+	 */
+	public synchronized int size() {
+		return map.size();
+	}
+
+	/**
+	 * Estimated bytes held by the cached tables.
+	 */
+	public synchronized long bytes() {
+		return bytes;
+	}
+
+	/**
+	 * Removes every entry; the counters are kept.
+	 */
+	public synchronized void clear() {
+		map.clear();
+		bytes = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "PreparedKeyCache[size=" + map.size() + ", bytes=" + bytes + "/" + budget + ", hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+}
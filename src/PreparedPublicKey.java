@@ -0,0 +1,82 @@
+import java.math.BigInteger;
+
+/**
+ * A validated public key V with a precomputed comb table, so that k*V costs
+ * about as much as k*G. Validating the key and building the table cost about
+ * three plain scalar multiplications, so preparing pays off after a handful
+ * of operations on the same key.
+ * Immutable and safe to share between threads; see PreparedKeyCache for
+ * keeping the hot ones within a memory budget.
+ */
+public final class PreparedPublicKey {
+
+	private final ECPoint v;
+
+	private final byte[] encoded;
+
+	private final FixedBaseComb comb;
+
+	/**
+	 * Constructor from the 67-byte ptToBytes encoding of the key.
+	 * @param encoded the encoded public key, not retained
+	 * @throws IllegalArgumentException if encoded is not a valid public key
+	 */
+	public PreparedPublicKey(byte[] encoded) {
+		//validated: V has order r, so scalars can be reduced mod r like for G
+		this.v = PublicKeyCache.decode(encoded);
+		this.encoded = encoded.clone();
+		this.comb = new FixedBaseComb(v, ECPoint.R.bitLength());
+	}
+
+	/**
+	 * Constructor from a public key point.
+	 * @param v the public key
+	 * @throws IllegalArgumentException if v is not a valid public key
+	 */
+	public PreparedPublicKey(ECPoint v) {
+		this(v.ptToBytes());
+	}
+
+	/**
+	 * Getter for the public key point
+	 * @return V
+	 */
+	public ECPoint getPoint() {
+		return v;
+	}
+
+	/**
+	 * Getter for the 67-byte encoding of the key
+	 * @return a copy of the encoding
+	 */
+	public byte[] getEncoded() {
+		return encoded.clone();
+	}
+
+	/**
+	 * Computes k*V from the table.
+	 * @param k any scalar
+	 * @return the point k*V
+	 */
+	public ECPoint multByScalar(BigInteger k) {
+		return comb.multiply(k.mod(ECPoint.R));
+	}
+
+	/**
+	 * Computes a*G + b*V, both tables sharing one chain of doublings.
+	 * @param a the scalar for G
+	 * @param b the scalar for V
+	 * @return the point a*G + b*V
+	 */
+	public ECPoint multByScalars(BigInteger a, BigInteger b) {
+		return FixedBaseComb.multiply(ECPoint.gComb(), a.mod(ECPoint.R), comb, b.mod(ECPoint.R));
+	}
+
+	/**
+	 * Approximate heap held by the table.
+	 * @return size estimate in bytes
+	 */
+	public long tableBytes() {
+		return comb.tableBytes();
+	}
+}
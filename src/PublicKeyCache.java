@@ -0,0 +1,130 @@
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache from the 67-byte ptToBytes encoding of a public key
+ * to the decoded ECPoint, so that keys used over and over skip the square
+ * root and the validation. Entries are validated once, on the miss that
+ * loads them: the point must be on the curve and in the subgroup of order r.
+ * Safe for concurrent use; lookups hold the lock only for the map access,
+ * decoding happens outside it.
+ */
+public class PublicKeyCache {
+
+	/**
+	 * Maximum number of entries.
+	 */
+	private final int capacity;
+
+	/**
+	 * Access-ordered map, eldest entry first, guarded by this.
+	 */
+	private final LinkedHashMap<ByteBuffer, ECPoint> map;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Constructor for an empty cache.
+	 * @param capacity maximum number of keys kept
+	 */
+	public PublicKeyCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive.");
+		}
+		this.capacity = capacity;
+		this.map = new LinkedHashMap<ByteBuffer, ECPoint>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ByteBuffer, ECPoint> eldest) {
+				if (size() > PublicKeyCache.this.capacity) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns the public key with the given encoding, decoding and validating it on a miss.
+	 * @param encoded 67-byte ptToBytes encoding, not modified or retained
+	 * @return the decoded public key
+	 * @throws IllegalArgumentException if encoded is not a valid public key
+	 */
+	public ECPoint get(byte[] encoded) {
+		ByteBuffer key = ByteBuffer.wrap(encoded.clone());
+		synchronized (this) {
+			ECPoint v = map.get(key);
+			if (v != null) {
+				hits++;
+				return v;
+			}
+			misses++;
+		}
+		ECPoint v = decode(encoded);
+		synchronized (this) {
+			map.put(key, v);
+		}
+		return v;
+	}
+
+	/**
+	 * Decodes and validates a public key without caching it.
+	 * @param encoded 67-byte ptToBytes encoding
+	 * @return the decoded public key
+	 * @throws IllegalArgumentException if encoded is not a valid public key
+	 */
+	public static ECPoint decode(byte[] encoded) {
+		ECPoint v = ECPoint.bytesToPt(encoded);
+		//public keys are multiples of G, so r*V must be the neutral element
+		if (!ECPoint.multByScalar(ECPoint.R, v).equals(new ECPoint())) {
+			throw new IllegalArgumentException("The point is not in the subgroup generated by G.");
+		}
+		return v;
+	}
+
+	/**
+	 * Number of lookups answered from the cache.
+	 */
+	public synchronized long hits() {
+		return hits;
+	}
+
+	/**
+	 * Number of lookups that had to decode the key.
+	 */
+	public synchronized long misses() {
+		return misses;
+	}
+
+	/**
+	 * Number of entries dropped to stay within capacity.
+	 */
+	public synchronized long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * Current number of entries.
+	 */
+	public synchronized int size() {
+		return map.size();
+	}
+
+	/**
+	 * Removes every entry; the counters are kept.
+	 */
+	public synchronized void clear() {
+		map.clear();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "PublicKeyCache[size=" + map.size() + "/" + capacity + ", hits=" + hits + ", misses=" + misses
+				+ ", evictions=" + evictions + "]";
+	}
+}
@@ -1,4 +1,9 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Java implementation of SHA3 and the derived function SHAKE256.
@@ -18,12 +23,7 @@ public class SHA3 {
 	private static int KECCAKF_ROUNDS = 24;
 	
 	/**
-	 * 8-bit bytes.
-	 */
-	private byte[] b = new byte[200];
-	
-	/**
-	 * 64-bit words.
+	 * Sponge state as 25 64-bit lanes (byte i of the state is byte i % 8 of lane i / 8, little-endian).
 	 */
 	private long[] st = new long[25];
 	
@@ -32,6 +32,11 @@ public class SHA3 {
 	 */
 	private int pt, rsiz, mdlen;
 	
+	/**
+	 * Little-endian long view of a byte array, used to absorb and squeeze whole lanes.
+	 */
+	private static final VarHandle LE_LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	
 	/**
 	 * Right encode only used to encode zero.
 	 */
@@ -52,6 +57,27 @@ public class SHA3 {
 	 */
 	private boolean XOF = false;
 	
+	/**
+	 * true once the sponge has been padded and switched to squeezing.
+	 */
+	private boolean squeezing = false;
+	
+	/**
+	 * Number of Keccak-p rounds per permutation, 24 except for TurboSHAKE (12).
+	 */
+	private int rounds = KECCAKF_ROUNDS;
+	
+	/**
+	 * TurboSHAKE domain separation byte, 0 for cSHAKE/KMAC padding.
+	 */
+	private byte turboD = 0;
+	
+	/**
+	 * true for a sponge set up by initStandardcSHAKE256: shake_xof then appends
+	 * right_encode(0) only for KMAC, and pads with 0x1F when N and S are both empty.
+	 */
+	private boolean standard = false;
+	
 	/**
 	 * Round constants for KeccakF (24 total).
 	 */
@@ -66,118 +92,185 @@ public class SHA3 {
             0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
     };
 	
-	/**
-	 * Rho function rotation offsets.
-	 */
-    private static final int[] keccakf_rotc = {
-            1,  3,  6,  10, 15, 21, 28, 36, 45, 55, 2,  14,
-            27, 41, 56, 8,  25, 43, 62, 18, 39, 61, 20, 44
-    };
-
     /**
-     * Pi lane shifts.
+     * Default constructor
      */
-    private static final int[] keccakf_piln = {
-            10, 7,  11, 17, 18, 3, 5,  16, 8,  21, 24, 4,
-            15, 23, 19, 13, 12, 2, 20, 14, 22, 9,  6,  1
-    };
+    public SHA3() {}
     
     /**
-     * Default constructor
+     * Copy constructor, snapshots the full sponge state of another instance.
+     * @param other the sponge to copy
      */
-    public SHA3() {}
+    SHA3(SHA3 other) {
+    	copyFrom(other);
+    }
+    
+    /**
+     * Domain separation tags used as KMACXOF256 customization strings by this library.
+     * Each tag holds the sponge state after "KMAC" and the tag have been absorbed,
+     * computed once and copied by initKMACXOF256(byte[], Domain).
+     */
+    public enum Domain {
+    	D, T, K, P, PKE, PKA, N, S, SKE, SKA;
+    	
+    	/**
+    	 * Sponge state after initcSHAKE256("KMAC", name()).
+    	 */
+    	private final SHA3 prefix;
+    	
+    	Domain() {
+    		prefix = new SHA3();
+    		prefix.initcSHAKE256("KMAC".getBytes(), name().getBytes());
+    	}
+    }
+    
+    /**
+     * Empty-key KMAC prefix for hashKMACXOF256, in a holder class so that it
+     * is built after Domain regardless of which class is initialized first.
+     */
+    private static final class HashKey {
+    	static final KmacKey D = new KmacKey("".getBytes(), Domain.D);
+    }
+    
+    /**
+     * Overwrites this sponge with the full state of another instance.
+     * @param other the sponge to copy
+     */
+    void copyFrom(SHA3 other) {
+    	System.arraycopy(other.st, 0, st, 0, st.length);
+    	pt = other.pt;
+    	rsiz = other.rsiz;
+    	mdlen = other.mdlen;
+    	KMAC = other.KMAC;
+    	XOF = other.XOF;
+    	squeezing = other.squeezing;
+    	rounds = other.rounds;
+    	turboD = other.turboD;
+    	standard = other.standard;
+    }
 	
 	
 	/**
-	 * Rotates 64-bit long x by y positions to the left
-	 * 
-	 * @param x a 64-bit long
-	 * @param y left rotation amount
-	 * @return 64 bit long x rotated by y positions
+	 * Apply Keccakf to the lanes of the state array, in place.
+	 * The lanes are held in locals for all rounds, and theta, rho-pi, chi
+	 * and iota are unrolled so no per-round allocation or index math is needed.
+	 * With fewer than 24 rounds this is Keccak-p[1600, rounds], which runs the last rounds of Keccakf.
+	 * @param a the 25 lanes of the state array
+	 * @param rounds number of rounds
 	 */
-	private static long ROTL64(long x, int y) {
-		return x << y | (x >>> (64 - y));
-	}
-	
-	/**
-	 * Apply Keccakf to input state array
-	 * @param v byte array (state array)
-	 */
-	private void sha3_keccakf(byte[] v) {
+	private static void sha3_keccakf(long[] a, int rounds) {
+		long a00 = a[0],  a01 = a[1],  a02 = a[2],  a03 = a[3],  a04 = a[4];
+		long a05 = a[5],  a06 = a[6],  a07 = a[7],  a08 = a[8],  a09 = a[9];
+		long a10 = a[10], a11 = a[11], a12 = a[12], a13 = a[13], a14 = a[14];
+		long a15 = a[15], a16 = a[16], a17 = a[17], a18 = a[18], a19 = a[19];
+		long a20 = a[20], a21 = a[21], a22 = a[22], a23 = a[23], a24 = a[24];
 		
-		// Endianess conversion and cast bytes in v[] to longs in st[]
-	    for (int i = 0, j = 0; i < 25; i++, j +=8) {
-	        st[i] = (((long) v[j+0] & 0xFFL))      | (((long) v[j+1] & 0xFFL) << 8) |
-	        	(((long) v[j+2] & 0xFFL) << 16) | (((long) v[j+3] & 0xFFL) << 24) |
-	        	(((long) v[j+4] & 0xFFL)  << 32)  | (((long) v[j+5] & 0xFFL) << 40) |
-	        	(((long) v[j+6] & 0xFFL) << 48) | (((long) v[j+7] & 0xFFL) << 56);
-	    }
-	    
-	    // actual iteration
-	    for (int r = 0; r < KECCAKF_ROUNDS; r++) {
-	    	long t;
-	    	long[] bc = new long[5];
-
-	        // Theta
-	        for (int i = 0; i < 5; i++)
-	            bc[i] = st[i] ^ st[i + 5] ^ st[i + 10] ^ st[i + 15] ^ st[i + 20];
-
-	        for (int i = 0; i < 5; i++) {
-	            t = bc[(i + 4) % 5] ^ ROTL64(bc[(i + 1) % 5], 1);
-	            for (int j = 0; j < 25; j += 5) {
-	                st[j + i] ^= t;
-	            }
-	        }
-
-	        // Rho Pi
-	        t = st[1];
-	        for (int i = 0; i < 24; i++) {
-	            int j = keccakf_piln[i];
-	            bc[0] = st[j];
-	            st[j] = ROTL64(t, keccakf_rotc[i]);
-	            t = bc[0];
-	        }
-
-	        //  Chi
-	        for (int j = 0; j < 25; j += 5) {
-	            for (int i = 0; i < 5; i++) {
-	                bc[i] = st[j + i];
-	            }
-	            for (int i = 0; i < 5; i++) {
-	                st[j + i] ^= (~bc[(i + 1) % 5]) & bc[(i + 2) % 5];
-	            }
-	        }
-
-	        //  Iota
-	        st[0] ^= keccakf_rndc[r];
-	    }
-	    
-	 // Endianess conversion and cast longs in st[] to bytes in v[].
-	    for (int i = 0, j = 0; i < 25; i++, j +=8) {
-	       long t = st[i];
-	        v[j+0] = (byte)((t) & 0xFF);
-	        v[j+1] = (byte)((t >> 8) & 0xFF);
-	        v[j+2] = (byte)((t >> 16) & 0xFF);
-	        v[j+3] = (byte)((t >> 24) & 0xFF);
-	        v[j+4] = (byte)((t >> 32) & 0xFF);
-	        v[j+5] = (byte)((t >> 40) & 0xFF);
-	        v[j+6] = (byte)((t >> 48) & 0xFF);
-	        v[j+7] = (byte)((t >> 56) & 0xFF);
-	    }	    
-	    
+		for (int r = KECCAKF_ROUNDS - rounds; r < KECCAKF_ROUNDS; r++) {
+			// Theta
+			long c0 = a00 ^ a05 ^ a10 ^ a15 ^ a20;
+			long c1 = a01 ^ a06 ^ a11 ^ a16 ^ a21;
+			long c2 = a02 ^ a07 ^ a12 ^ a17 ^ a22;
+			long c3 = a03 ^ a08 ^ a13 ^ a18 ^ a23;
+			long c4 = a04 ^ a09 ^ a14 ^ a19 ^ a24;
+			
+			long d0 = c4 ^ Long.rotateLeft(c1, 1);
+			long d1 = c0 ^ Long.rotateLeft(c2, 1);
+			long d2 = c1 ^ Long.rotateLeft(c3, 1);
+			long d3 = c2 ^ Long.rotateLeft(c4, 1);
+			long d4 = c3 ^ Long.rotateLeft(c0, 1);
+			
+			a00 ^= d0; a05 ^= d0; a10 ^= d0; a15 ^= d0; a20 ^= d0;
+			a01 ^= d1; a06 ^= d1; a11 ^= d1; a16 ^= d1; a21 ^= d1;
+			a02 ^= d2; a07 ^= d2; a12 ^= d2; a17 ^= d2; a22 ^= d2;
+			a03 ^= d3; a08 ^= d3; a13 ^= d3; a18 ^= d3; a23 ^= d3;
+			a04 ^= d4; a09 ^= d4; a14 ^= d4; a19 ^= d4; a24 ^= d4;
+			
+			// Rho Pi
+			c1  = Long.rotateLeft(a01, 1);
+			a01 = Long.rotateLeft(a06, 44);
+			a06 = Long.rotateLeft(a09, 20);
+			a09 = Long.rotateLeft(a22, 61);
+			a22 = Long.rotateLeft(a14, 39);
+			a14 = Long.rotateLeft(a20, 18);
+			a20 = Long.rotateLeft(a02, 62);
+			a02 = Long.rotateLeft(a12, 43);
+			a12 = Long.rotateLeft(a13, 25);
+			a13 = Long.rotateLeft(a19, 8);
+			a19 = Long.rotateLeft(a23, 56);
+			a23 = Long.rotateLeft(a15, 41);
+			a15 = Long.rotateLeft(a04, 27);
+			a04 = Long.rotateLeft(a24, 14);
+			a24 = Long.rotateLeft(a21, 2);
+			a21 = Long.rotateLeft(a08, 55);
+			a08 = Long.rotateLeft(a16, 45);
+			a16 = Long.rotateLeft(a05, 36);
+			a05 = Long.rotateLeft(a03, 28);
+			a03 = Long.rotateLeft(a18, 21);
+			a18 = Long.rotateLeft(a17, 15);
+			a17 = Long.rotateLeft(a11, 10);
+			a11 = Long.rotateLeft(a07, 6);
+			a07 = Long.rotateLeft(a10, 3);
+			a10 = c1;
+			
+			// Chi
+			c0 = a00 ^ (~a01 & a02);
+			c1 = a01 ^ (~a02 & a03);
+			a02 ^= ~a03 & a04;
+			a03 ^= ~a04 & a00;
+			a04 ^= ~a00 & a01;
+			a00 = c0; a01 = c1;
+			
+			c0 = a05 ^ (~a06 & a07);
+			c1 = a06 ^ (~a07 & a08);
+			a07 ^= ~a08 & a09;
+			a08 ^= ~a09 & a05;
+			a09 ^= ~a05 & a06;
+			a05 = c0; a06 = c1;
+			
+			c0 = a10 ^ (~a11 & a12);
+			c1 = a11 ^ (~a12 & a13);
+			a12 ^= ~a13 & a14;
+			a13 ^= ~a14 & a10;
+			a14 ^= ~a10 & a11;
+			a10 = c0; a11 = c1;
+			
+			c0 = a15 ^ (~a16 & a17);
+			c1 = a16 ^ (~a17 & a18);
+			a17 ^= ~a18 & a19;
+			a18 ^= ~a19 & a15;
+			a19 ^= ~a15 & a16;
+			a15 = c0; a16 = c1;
+			
+			c0 = a20 ^ (~a21 & a22);
+			c1 = a21 ^ (~a22 & a23);
+			a22 ^= ~a23 & a24;
+			a23 ^= ~a24 & a20;
+			a24 ^= ~a20 & a21;
+			a20 = c0; a21 = c1;
+			
+			// Iota
+			a00 ^= keccakf_rndc[r];
+		}
+		
+		a[0]  = a00; a[1]  = a01; a[2]  = a02; a[3]  = a03; a[4]  = a04;
+		a[5]  = a05; a[6]  = a06; a[7]  = a07; a[8]  = a08; a[9]  = a09;
+		a[10] = a10; a[11] = a11; a[12] = a12; a[13] = a13; a[14] = a14;
+		a[15] = a15; a[16] = a16; a[17] = a17; a[18] = a18; a[19] = a19;
+		a[20] = a20; a[21] = a21; a[22] = a22; a[23] = a23; a[24] = a24;
 	}
+	
 	/**
 	 * Encodes the integer x as a byte string in a way that can be unambiguously parsed
 	 * from the beginning of the string, as specified per NIST SP 800-185 sec. 2.3.1
 	 * 
-	 * Validity Conditions: 0 <= x < 2^2040
+	 * Validity Conditions: 0 <= x < 2^64
 	 * @param x integer x
 	 * @return O byteString representation of x
 	 */
-	private static byte[] left_encode(int x) {
+	static byte[] left_encode(long x) {
 		//1. Let n be the smallest positive integer for which 2^8n > x.
 		  int n = 1;
-	      while ((1 << (8*n)) <= x) {
+	      while (n < 8 && (x >>> (8*n)) != 0) {
 	            n++;
 	      }
 	      
@@ -196,6 +289,31 @@ public class SHA3 {
 	      return O;
 	}
 	
+	/**
+	 * Encodes the integer x as a byte string in a way that can be unambiguously parsed
+	 * from the end of the string, as specified per NIST SP 800-185 sec. 2.3.1
+	 * 
+	 * Validity Conditions: 0 <= x < 2^64
+	 * @param x integer x
+	 * @return O byteString representation of x
+	 */
+	static byte[] right_encode(long x) {
+		//1. Let n be the smallest positive integer for which 2^8n > x.
+		int n = 1;
+		while (n < 8 && (x >>> (8*n)) != 0) {
+			n++;
+		}
+		byte[] O = new byte[n+1];
+		//2-3. O1..On = base-256 encoding of x, most significant byte first
+		for (int i = n - 1; i >= 0; i--) {
+			O[i] = (byte)(x & 0xFF);
+			x = x >>> 8;
+		}
+		//4. Let On+1 = enc8(n).
+		O[n] = (byte)n;
+		return O;
+	}
+	
 	/**
 	 * Encodes bit strings in a way that may be parsed unambiguously 
 	 * from the beginning of the string, S, as specified per NIST SP 800-185 sec. 2.3.2
@@ -222,6 +340,43 @@ public class SHA3 {
 		return SPrime;	
 	}
 	
+	/**
+	 * encode_string as specified per NIST SP 800-185 sec. 2.3.2, for the standard
+	 * init methods. encode_string above leaves the copied bytes of S as they were,
+	 * which the existing cSHAKE and KMAC outputs of this library depend on.
+	 * 
+	 * Validity Conditions: 0 <= len(S) < 2^2040
+	 * @param S the byte array of the string to encode, null for the empty string
+	 * @return left_encode(len(S)) || S
+	 */
+	private static byte[] encodeStringStandard(byte[] S) {
+		if (S == null) {
+			return LEFT_ENCODE_0.clone();
+		}
+		byte[] leftEncS = left_encode((long) S.length << 3);
+		byte[] SPrime = Arrays.copyOf(leftEncS, leftEncS.length + S.length);
+		System.arraycopy(S, 0, SPrime, leftEncS.length, S.length);
+		return SPrime;
+	}
+	
+	/**
+	 * bytepad as specified per NIST SP 800-185 sec. 2.3.3, for the standard init methods:
+	 * unlike bytepad above, it adds no zeros when the length is already a multiple of w.
+	 * 
+	 * Validity Conditions: w > 0
+	 * @param X byte array of the string to pad
+	 * @param w encoding integer
+	 * @return left_encode(w) || X, padded with zeros to a multiple of w bytes
+	 */
+	private static byte[] bytepadStandard(byte[] X, int w) {
+		byte[] leftEncW = left_encode(w);
+		int len = leftEncW.length + X.length;
+		byte[] z = new byte[(len + w - 1) / w * w];
+		System.arraycopy(leftEncW, 0, z, 0, leftEncW.length);
+		System.arraycopy(X, 0, z, leftEncW.length, X.length);
+		return z;
+	}
+	
 	/**
 	 * Prepends an encoding of the integer w to an input string X, 
 	 * then pads the result with zeros until it is a byte string 
@@ -254,12 +409,33 @@ public class SHA3 {
      * 
      */
     public void initSHAKE256() {
-        Arrays.fill(b, (byte) 0);
+        Arrays.fill(st, 0L);
         mdlen = 32; 
         rsiz = 200 - (2 * mdlen);
         pt = 0;
         KMAC = false;
         XOF = false;
+        squeezing = false;
+        rounds = KECCAKF_ROUNDS;
+        turboD = 0;
+        standard = false;
+    }
+    
+    /**
+     * Initializes TurboSHAKE256 sponge: rate 136 bytes, Keccak-p[1600, 12],
+     * and the given domain separation byte in place of the cSHAKE padding.
+     * As specified per RFC 9861 sec. 2.
+     * 
+     * Validity Conditions: 0x01 <= D <= 0x7F
+     * @param D domain separation byte
+     */
+    public void initTurboSHAKE256(byte D) {
+    	if (D < 0x01) {
+    		throw new IllegalArgumentException("Domain separation byte must be in 0x01..0x7F.");
+    	}
+    	initSHAKE256();
+    	rounds = 12;
+    	turboD = D;
     }
 	
     /**
@@ -284,6 +460,47 @@ public class SHA3 {
         
     }
     
+    /**
+     * Initializes cSHAKE256 sponge as specified per NIST SP 800-185 sec. 3.3:
+     * bytepad(encode_string(N) || encode_string(S), 136) is absorbed first, 
+     * or nothing if N and S are both empty, in which case this is SHAKE256.
+     * initcSHAKE256 keeps the encoding the library's existing outputs were made with.
+     * 
+     * Validity Conditions: len(N)< 2^2040 and len(S)< 2^2040
+     * @param N function name bitstring, null for the empty string
+     * @param S customization bitstring, null for the empty string
+     */
+    public void initStandardcSHAKE256(byte[] N, byte[] S) {
+    	initSHAKE256();
+    	standard = true;
+    	if ((N != null && N.length != 0) || (S != null && S.length != 0)) {
+    		XOF = true;
+    		byte[] encN = encodeStringStandard(N);
+    		byte[] encS = encodeStringStandard(S);
+    		byte[] temp = Arrays.copyOf(encN, encN.length + encS.length);
+    		System.arraycopy(encS, 0, temp, encN.length, encS.length);
+    		byte[] p = bytepadStandard(temp, 136);
+    		update(p, p.length);
+    	}
+    }
+    
+    /**
+     * Initializes KMACXOF256 sponge as specified per NIST SP 800-185 sec. 4.3.1:
+     * cSHAKE256 with N = "KMAC" and S, as set up by initStandardcSHAKE256, 
+     * followed by bytepad(encode_string(K), 136). Unlike initKMACXOF256, 
+     * the output depends on the bytes of K and not only on its length.
+     * 
+     * Validity Conditions: len(K)< 2^2040 and len(S)< 2^2040
+     * @param K MAC key bitstring 
+     * @param S customization bitstring, null for the empty string
+     */
+    public void initStandardKMACXOF256(byte[] K, byte[] S) {
+    	initStandardcSHAKE256("KMAC".getBytes(), S);
+    	KMAC = true;
+    	byte[] encStrK = bytepadStandard(encodeStringStandard(K), 136);
+    	update(encStrK, encStrK.length);
+    }
+    
     /**
      * Initializes KMACXOF256 sponge.
      * 
@@ -298,6 +515,21 @@ public class SHA3 {
     	KMAC = true;
     	update(encStrK, encStrK.length);	
     }
+    
+    /**
+     * Initializes KMACXOF256 sponge for one of the library's domain tags,
+     * starting from the cached customization state instead of re-absorbing it.
+     * 
+     * Validity Conditions: len(K)< 2^2040
+     * @param K MAC key bitstring 
+     * @param S domain tag used as customization string
+     */
+    public void initKMACXOF256(byte[] K, Domain S) {
+    	byte[] encStrK = bytepad(encode_string(K), 136);
+    	copyFrom(S.prefix);
+    	KMAC = true;
+    	update(encStrK, encStrK.length);
+    }
 	
 	/**
 	 * Updates sponge 
@@ -306,15 +538,253 @@ public class SHA3 {
 	 * @param len length of input byte array
 	 */
 	private void update(byte[] data, int len) {
+		update(data, 0, len);
+	}
+	
+	/**
+	 * Updates sponge. Bytes are absorbed one at a time only until the sponge
+	 * position is lane aligned; full rate blocks and remaining whole lanes are
+	 * absorbed 8 bytes at a time, then the unaligned tail byte-wise.
+	 * 
+	 * May be called any number of times after one of the init methods and
+	 * before the first call to squeeze.
+	 * 
+	 * @param data input byte array
+	 * @param off offset of the first byte to absorb
+	 * @param len number of bytes to absorb
+	 * @throws IllegalStateException if the sponge is already squeezing
+	 */
+	public void update(byte[] data, int off, int len) {
+		Objects.checkFromIndexSize(off, len, data.length);
+		if (squeezing) {
+			throw new IllegalStateException("Cannot absorb after squeezing has started.");
+		}
 		int j = pt;
-        for (int i = 0; i < len; i++) {
-        	b[j++] ^= data[i];
-            if (j >= rsiz) {
-                sha3_keccakf(b);
-                j = 0;
-            }
-        }
-        pt = j;
+		// unaligned head
+		while (len > 0 && (j & 7) != 0) {
+			st[j >>> 3] ^= ((long) data[off++] & 0xFFL) << ((j & 7) << 3);
+			len--;
+			if (++j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+		}
+		// whole lanes up to the end of the current block
+		while (len >= 8 && j != 0) {
+			st[j >>> 3] ^= (long) LE_LONG.get(data, off);
+			off += 8;
+			len -= 8;
+			j += 8;
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+		}
+		// full rate blocks
+		if (j == 0) {
+			int lanes = rsiz >>> 3;
+			while (len >= rsiz) {
+				for (int i = 0; i < lanes; i++, off += 8) {
+					st[i] ^= (long) LE_LONG.get(data, off);
+				}
+				sha3_keccakf(st, rounds);
+				len -= rsiz;
+			}
+		}
+		// remaining whole lanes
+		while (len >= 8) {
+			st[j >>> 3] ^= (long) LE_LONG.get(data, off);
+			off += 8;
+			len -= 8;
+			j += 8;
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+		}
+		// unaligned tail
+		while (len > 0) {
+			st[j >>> 3] ^= ((long) data[off++] & 0xFFL) << ((j & 7) << 3);
+			len--;
+			j++;
+		}
+		pt = j;
+	}
+	
+	/**
+	 * Updates sponge with the remaining bytes of a buffer, advancing its
+	 * position to its limit. Heap buffers go through the byte array path,
+	 * direct and mapped buffers are read a lane at a time.
+	 * 
+	 * @param data input buffer
+	 * @throws IllegalStateException if the sponge is already squeezing
+	 */
+	public void update(ByteBuffer data) {
+		if (data.hasArray()) {
+			update(data.array(), data.arrayOffset() + data.position(), data.remaining());
+			data.position(data.limit());
+			return;
+		}
+		if (squeezing) {
+			throw new IllegalStateException("Cannot absorb after squeezing has started.");
+		}
+		ByteBuffer buf = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int len = buf.remaining();
+		int j = pt;
+		// unaligned head
+		while (len > 0 && (j & 7) != 0) {
+			st[j >>> 3] ^= ((long) buf.get() & 0xFFL) << ((j & 7) << 3);
+			len--;
+			if (++j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+		}
+		// whole lanes
+		while (len >= 8) {
+			st[j >>> 3] ^= buf.getLong();
+			len -= 8;
+			j += 8;
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+		}
+		// unaligned tail
+		while (len > 0) {
+			st[j >>> 3] ^= ((long) buf.get() & 0xFFL) << ((j & 7) << 3);
+			len--;
+			j++;
+		}
+		pt = j;
+		data.position(data.limit());
+	}
+	
+	/**
+	 * Squeezes the next len bytes of output from the sponge. The first call pads
+	 * the absorbed input (see shake_xof); later calls continue the same output
+	 * stream, so any split of the output yields the same bytes as one call.
+	 * 
+	 * @param out output byte array
+	 * @param off offset of the first output byte
+	 * @param len number of bytes to squeeze
+	 */
+	public void squeeze(byte[] out, int off, int len) {
+		Objects.checkFromIndexSize(off, len, out.length);
+		if (!squeezing) {
+			shake_xof();
+		}
+		shake_out(out, off, len);
+	}
+	
+	/**
+	 * XORs the next len bytes of output into in[inOff, inOff + len) and stores
+	 * the result in out[outOff, outOff + len), without materializing the output.
+	 * in and out may be the same array with inOff == outOff to XOR in place.
+	 * Continues the same output stream as squeeze, so a keystream can be applied
+	 * in pieces of any size.
+	 * 
+	 * @param in input byte array
+	 * @param inOff offset of the first input byte
+	 * @param out output byte array
+	 * @param outOff offset of the first output byte
+	 * @param len number of bytes to XOR
+	 */
+	public void squeezeXor(byte[] in, int inOff, byte[] out, int outOff, int len) {
+		Objects.checkFromIndexSize(inOff, len, in.length);
+		Objects.checkFromIndexSize(outOff, len, out.length);
+		if (!squeezing) {
+			shake_xof();
+		}
+		int j = pt;
+		// unaligned head
+		while (len > 0 && (j & 7) != 0) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			out[outOff++] = (byte) (in[inOff++] ^ (st[j >>> 3] >>> ((j & 7) << 3)));
+			len--;
+			j++;
+		}
+		// whole lanes
+		while (len >= 8) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			LE_LONG.set(out, outOff, (long) LE_LONG.get(in, inOff) ^ st[j >>> 3]);
+			inOff += 8;
+			outOff += 8;
+			len -= 8;
+			j += 8;
+		}
+		// unaligned tail
+		while (len > 0) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			out[outOff++] = (byte) (in[inOff++] ^ (st[j >>> 3] >>> ((j & 7) << 3)));
+			len--;
+			j++;
+		}
+		pt = j;
+	}
+	
+	/**
+	 * XORs the next output bytes in place into the remaining bytes of data,
+	 * advancing its position to its limit. Heap buffers go through the byte
+	 * array path, direct and mapped buffers are XORed a lane at a time.
+	 * 
+	 * @param data the buffer to XOR, e.g. a mapped region of a file
+	 */
+	public void squeezeXor(ByteBuffer data) {
+		if (data.hasArray()) {
+			int off = data.arrayOffset() + data.position();
+			squeezeXor(data.array(), off, data.array(), off, data.remaining());
+			data.position(data.limit());
+			return;
+		}
+		if (!squeezing) {
+			shake_xof();
+		}
+		ByteBuffer buf = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		int i = buf.position();
+		int end = buf.limit();
+		int j = pt;
+		// unaligned head
+		while (i < end && (j & 7) != 0) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			buf.put(i, (byte) (buf.get(i) ^ (st[j >>> 3] >>> ((j & 7) << 3))));
+			i++;
+			j++;
+		}
+		// whole lanes
+		while (end - i >= 8) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			buf.putLong(i, buf.getLong(i) ^ st[j >>> 3]);
+			i += 8;
+			j += 8;
+		}
+		// unaligned tail
+		while (i < end) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			buf.put(i, (byte) (buf.get(i) ^ (st[j >>> 3] >>> ((j & 7) << 3))));
+			i++;
+			j++;
+		}
+		pt = j;
+		data.position(end);
 	}
 	
 	/**
@@ -323,32 +793,124 @@ public class SHA3 {
 	 * @param len length of encoded data
 	 */
 	private void shake_out(byte[] out, int len) {
-        int j = pt;
-        for (int i = 0; i < len; i++) {
-            if (j >= rsiz) {
-                sha3_keccakf(b);
-                j = 0;
-            }
-            out[i] = b[j++];
-        }
-        pt = j;
-    }
+		shake_out(out, 0, len);
+	}
+	
+	/**
+	 * Creates encoded data block from sponge. Mirrors update: byte-wise
+	 * only for the unaligned head and tail, whole lanes otherwise.
+	 * @param out encoded data
+	 * @param off offset of the first output byte
+	 * @param len length of encoded data
+	 */
+	private void shake_out(byte[] out, int off, int len) {
+		int j = pt;
+		// unaligned head
+		while (len > 0 && (j & 7) != 0) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			out[off++] = (byte) (st[j >>> 3] >>> ((j & 7) << 3));
+			len--;
+			j++;
+		}
+		// whole lanes up to the end of the current block
+		while (len >= 8 && j < rsiz) {
+			LE_LONG.set(out, off, st[j >>> 3]);
+			off += 8;
+			len -= 8;
+			j += 8;
+		}
+		// full rate blocks
+		if (j >= rsiz) {
+			int lanes = rsiz >>> 3;
+			while (len >= rsiz) {
+				sha3_keccakf(st, rounds);
+				for (int i = 0; i < lanes; i++, off += 8) {
+					LE_LONG.set(out, off, st[i]);
+				}
+				len -= rsiz;
+			}
+		}
+		// remaining whole lanes
+		while (len >= 8) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			LE_LONG.set(out, off, st[j >>> 3]);
+			off += 8;
+			len -= 8;
+			j += 8;
+		}
+		// unaligned tail
+		while (len > 0) {
+			if (j >= rsiz) {
+				sha3_keccakf(st, rounds);
+				j = 0;
+			}
+			out[off++] = (byte) (st[j >>> 3] >>> ((j & 7) << 3));
+			len--;
+			j++;
+		}
+		pt = j;
+	}
 	
 	/**
 	 * Switch from KMAC to KMACXOF (extensible output functionality).
 	 */
 	public void shake_xof() {
+		if (turboD != 0) {
+			st[pt >>> 3] ^= ((long) turboD & 0xFFL) << ((pt & 7) << 3);
+			st[(rsiz - 1) >>> 3] ^= 0x80L << (((rsiz - 1) & 7) << 3);
+			sha3_keccakf(st, rounds);
+			pt = 0;
+			squeezing = true;
+			return;
+		}
+		if (standard) {
+			if (KMAC) {
+				update(RIGHT_ENCODE, RIGHT_ENCODE.length);
+			}
+			st[pt >>> 3] ^= (XOF ? 0x04L : 0x1FL) << ((pt & 7) << 3);
+			st[(rsiz - 1) >>> 3] ^= 0x80L << (((rsiz - 1) & 7) << 3);
+			sha3_keccakf(st, rounds);
+			pt = 0;
+			squeezing = true;
+			return;
+		}
 		if (KMAC = true) {
 			update(RIGHT_ENCODE, RIGHT_ENCODE.length);
 		}
 		if (XOF = true) {
-			b[pt] ^= (byte) 0x04;
+			st[pt >>> 3] ^= 0x04L << ((pt & 7) << 3);
 		} else {
-			b[pt] ^= (byte) 0x1F;
+			st[pt >>> 3] ^= 0x1FL << ((pt & 7) << 3);
 		}
-		b[rsiz - 1] ^= (byte) 0x80;
-		sha3_keccakf(b);
+		st[(rsiz - 1) >>> 3] ^= 0x80L << (((rsiz - 1) & 7) << 3);
+		sha3_keccakf(st, rounds);
 		pt = 0;
+		squeezing = true;
+	}
+	
+	/**
+	 * TurboSHAKE256, the 12-round member of the SHAKE256 family, 
+	 * as specified per RFC 9861 sec. 2.2.
+	 * 
+	 * Validity Conditions: 0x01 <= D <= 0x7F
+	 * @param M the main input bitstring.
+	 * @param D domain separation byte
+	 * @param L the requested output length in bits (integer)
+	 * @return hash value
+	 */
+	public static byte[] TurboSHAKE256(byte[] M, byte D, int L) {
+		SHA3 sha3 = new SHA3();
+		byte[] result = new byte[L >>> 3];
+		sha3.initTurboSHAKE256(D);
+		sha3.update(M, 0, M.length);
+		sha3.squeeze(result, 0, result.length);
+		return result;
 	}
 	
 	/**
@@ -395,6 +957,26 @@ public class SHA3 {
 		return result;	
 	}
 	
+	/**
+	 * KMACXOF256 customized with one of the library's domain tags.
+	 * Same result as KMACXOF256(K, X, L, S.name().getBytes()).
+	 * 
+	 * @param K MAC key bitstring.
+	 * @param X the main input bitstring.
+	 * @param L the requested output length in bits (integer)
+	 * @param S domain tag used as customization string
+	 * @return the L-bit output
+	 */
+	public static byte[] KMACXOF256(byte[] K, byte[] X, int L, Domain S) {
+		SHA3 sha3 = new SHA3();
+		byte[] result = new byte[L >>> 3];
+		sha3.initKMACXOF256(K, S);
+		sha3.update(X, X.length);
+		sha3.shake_xof();
+		sha3.shake_out(result, L >>> 3);
+		return result;
+	}
+	
 	
 	/**
 	 * Computes a plain cryptographic hash of the user input.
@@ -403,7 +985,7 @@ public class SHA3 {
 	 */
 	public static byte[] hashKMACXOF256(byte[] m) {
 		// h = KMACXOF256(, m, 512, D)
-		byte[] h = KMACXOF256("".getBytes(), m, 512, "D".getBytes()); 
+		byte[] h = HashKey.D.KMACXOF256(m, 512); 
 		return h;
 	}
 	
@@ -415,10 +997,33 @@ public class SHA3 {
 	 */
 	public static byte[] mac(byte[] pw, byte[] m) {
 		//t = KMACXOF256(pw, m, 512, T)
-		byte[] t = KMACXOF256(pw, m, 512, "T".getBytes());
+		byte[] t = KMACXOF256(pw, m, 512, Domain.T);
 		return t;
 	}
 	
+	/**
+	 * Absorbs a passphrase once for repeated calls to mac(KmacKey, byte[]).
+	 * WARNING: like mac(pw, m), the tag does not depend on the bytes of pw,
+	 * only on its length (see KmacKey). Package-private so that no new callers
+	 * take it for a keyed MAC.
+	 * @param pw the passphrase
+	 * @return the reusable MAC key
+	 */
+	static KmacKey macKey(byte[] pw) {
+		return new KmacKey(pw, Domain.T);
+	}
+	
+	/**
+	 * Computes an authentication tag (MAC) of a given input under a key from macKey.
+	 * Same result as mac(pw, m) without re-absorbing the passphrase.
+	 * @param key the key returned by macKey(pw)
+	 * @param m a byte array of input
+	 * @return t the authentication tag
+	 */
+	static byte[] mac(KmacKey key, byte[] m) {
+		return key.KMACXOF256(m, 512);
+	}
+	
 	/**
 	 * Helper method to convert decimal byte array to hex.
 	 * @param input array
@@ -0,0 +1,113 @@
+import java.util.stream.IntStream;
+
+/**
+ * Batch KMACXOF256 and cSHAKE256 over many independent inputs.
+ * The key and customization prefix is absorbed once for the whole batch,
+ * each worker reuses a single sponge for all of its inputs, and chunks of 
+ * inputs are spread over the common ForkJoinPool.
+ * Results are identical to calling the single-stream methods of SHA3 one input at a time.
+ */
+public class SHA3Batch {
+	
+	/**
+	 * Number of inputs hashed by one task.
+	 */
+	private static final int CHUNK = 256;
+	
+	/**
+	 * Cached prefix of hashKMACXOF256 (empty key, customization "D").
+	 */
+	private static final KmacKey HASH_KEY = new KmacKey("".getBytes(), SHA3.Domain.D);
+	
+	/**
+	 * Not instantiable, all entry points are static.
+	 */
+	private SHA3Batch() {}
+	
+	/**
+	 * KMACXOF256(K, X[i], L, S) for every input, under one key and customization.
+	 * 
+	 * @param K MAC key bitstring
+	 * @param X the inputs
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring
+	 * @return one L-bit output per input, in input order
+	 */
+	public static byte[][] KMACXOF256(byte[] K, byte[][] X, int L, byte[] S) {
+		return KMACXOF256(new KmacKey(K, S), X, L);
+	}
+	
+	/**
+	 * KMACXOF256(K, X[i], L, S) for every input, under one key and domain tag.
+	 * 
+	 * @param K MAC key bitstring
+	 * @param X the inputs
+	 * @param L the requested output length in bits (integer)
+	 * @param S domain tag used as customization string
+	 * @return one L-bit output per input, in input order
+	 */
+	public static byte[][] KMACXOF256(byte[] K, byte[][] X, int L, SHA3.Domain S) {
+		return KMACXOF256(new KmacKey(K, S), X, L);
+	}
+	
+	/**
+	 * KMACXOF256 for every input from a reusable key.
+	 * Package-private with KmacKey, whose legacy prefix ignores the key bytes.
+	 * 
+	 * @param key the absorbed key prefix
+	 * @param X the inputs
+	 * @param L the requested output length in bits (integer)
+	 * @return one L-bit output per input, in input order
+	 */
+	static byte[][] KMACXOF256(KmacKey key, byte[][] X, int L) {
+		return run(key.newSponge(), X, L >>> 3);
+	}
+	
+	/**
+	 * cSHAKE256(X[i], L, N, S) for every input.
+	 * 
+	 * @param X the inputs
+	 * @param L the requested output length in bits (integer)
+	 * @param N function name bitstring
+	 * @param S customization bitstring
+	 * @return one L-bit output per input, in input order
+	 */
+	public static byte[][] cSHAKE256(byte[][] X, int L, byte[] N, byte[] S) {
+		SHA3 prefix = new SHA3();
+		prefix.initcSHAKE256(N, S);
+		return run(prefix, X, L >>> 3);
+	}
+	
+	/**
+	 * SHA3.hashKMACXOF256 of every input.
+	 * 
+	 * @param m the inputs
+	 * @return one 512-bit hash per input, in input order
+	 */
+	public static byte[][] hashKMACXOF256(byte[][] m) {
+		return KMACXOF256(HASH_KEY, m, 512);
+	}
+	
+	/**
+	 * Hashes every input from a copy of a common prefix sponge.
+	 * 
+	 * @param prefix sponge holding the absorbed prefix, never modified
+	 * @param X the inputs
+	 * @param outLen output length in bytes
+	 * @return the outputs in input order
+	 */
+	private static byte[][] run(SHA3 prefix, byte[][] X, int outLen) {
+		byte[][] out = new byte[X.length][];
+		IntStream.range(0, (X.length + CHUNK - 1) / CHUNK).parallel().forEach(c -> {
+			SHA3 sha3 = new SHA3();
+			int end = Math.min(X.length, (c + 1) * CHUNK);
+			for (int i = c * CHUNK; i < end; i++) {
+				sha3.copyFrom(prefix);
+				sha3.update(X[i], 0, X[i].length);
+				out[i] = new byte[outLen];
+				sha3.squeeze(out[i], 0, outLen);
+			}
+		});
+		return out;
+	}
+}
@@ -0,0 +1,465 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Passphrase encryption in independent segments, so that large inputs are
+ * encrypted on all cores and any single segment can be decrypted on its own.
+ *
+ * Keys are derived as (ke || ka) = KMACXOF256(z || pw, "", 1024, "S"). Every KMACXOF256
+ * here is the one specified per NIST SP 800-185 sec. 4.3.1 (SHA3.initStandardKMACXOF256),
+ * not the one of SymmetricEncryptDecrypt, whose output depends only on the length of the key.
+ * The message is cut into segments m_i of segmentSize bytes (the last one may be shorter), and
+ * <pre>
+ * c_i = KMACXOF256(ke, "", |m_i|, "SKE" || left_encode(i)) XOR m_i
+ * t_i = KMACXOF256(ka, m_i, 512, "SKA" || left_encode(i))
+ * t   = KMACXOF256(ka, header || t_0 || ... || t_n-1 || right_encode(n), 512, "SKA")
+ * </pre>
+ * Segments are processed on the common ForkJoinPool. The cryptogram is
+ * <pre>
+ * header: byte version, int segmentSize, long |m|, z (64 bytes)
+ * c_0 || t_0 || c_1 || t_1 || ... || c_n-1 || t_n-1 || t
+ * </pre>
+ * with integers big-endian, so segment i starts at HEADER + i * (segmentSize + 64).
+ * t_i binds a segment to its index, t binds all segments, their number and the header.
+ */
+public class SegmentedEncryptDecrypt {
+
+	/**
+	 * Format version, first byte of every cryptogram.
+	 */
+	static final byte VERSION = 1;
+
+	/**
+	 * Header length: version, segment size, message length and z.
+	 */
+	static final int HEADER = 1 + 4 + 8 + 64;
+
+	/**
+	 * Length of every tag.
+	 */
+	private static final int TAG = 64;
+
+	/**
+	 * Segment size used when none is given.
+	 */
+	public static final int DEFAULT_SEGMENT = 1 << 20;
+
+	/**
+	 * Customization string of the key derivation.
+	 */
+	private static final byte[] S = "S".getBytes();
+
+	/**
+	 * Customization prefixes, followed by left_encode(i), and SKA alone for the final tag.
+	 */
+	private static final byte[] SKE = "SKE".getBytes();
+	private static final byte[] SKA = "SKA".getBytes();
+
+	/**
+	 * Reads len bytes at pos of a message or cryptogram into buf[0, len).
+	 */
+	private interface Source {
+		void read(long pos, byte[] buf, int len) throws IOException;
+	}
+
+	/**
+	 * Writes buf[0, len) at pos of a message or cryptogram.
+	 */
+	private interface Sink {
+		void write(long pos, byte[] buf, int len) throws IOException;
+	}
+
+	/**
+	 * Not instantiable, all entry points are static.
+	 */
+	private SegmentedEncryptDecrypt() {}
+
+	/**
+	 * Encrypts a byte array under passphrase in segments of DEFAULT_SEGMENT bytes.
+	 *
+	 * @param pass passphrase byte array
+	 * @param m message byte array
+	 * @return segmented cryptogram of message
+	 */
+	public static byte[] encrypt(byte[] pass, byte[] m) {
+		return encrypt(pass, m, DEFAULT_SEGMENT);
+	}
+
+	/**
+	 * Encrypts a byte array under passphrase in segments of the given size.
+	 *
+	 * @param pass passphrase byte array
+	 * @param m message byte array
+	 * @param segmentSize bytes per segment, positive
+	 * @return segmented cryptogram of message
+	 */
+	public static byte[] encrypt(byte[] pass, byte[] m, int segmentSize) {
+		byte[] res = new byte[Math.toIntExact(size(m.length, segmentSize))];
+		try {
+			encrypt(pass, m.length, segmentSize,
+					(pos, buf, len) -> System.arraycopy(m, (int) pos, buf, 0, len),
+					(pos, buf, len) -> System.arraycopy(buf, 0, res, (int) pos, len));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return res;
+	}
+
+	/**
+	 * Decrypts a segmented cryptogram using passphrase.
+	 *
+	 * @param pass passphrase byte array
+	 * @param crp segmented cryptogram
+	 * @return decrypted message, or null if the cryptogram is malformed or a tag does not match
+	 */
+	public static byte[] decrypt(byte[] pass, byte[] crp) {
+		ByteBuffer header = header(ByteBuffer.wrap(crp), crp.length);
+		if (header == null) {
+			return null;
+		}
+		byte[] m = new byte[Math.toIntExact(header.getLong(5))];
+		try {
+			boolean valid = decrypt(pass, header,
+					(pos, buf, len) -> System.arraycopy(crp, (int) pos, buf, 0, len),
+					(pos, buf, len) -> System.arraycopy(buf, 0, m, (int) pos, len));
+			return valid ? m : null;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Encrypts the whole content of a file under passphrase into another file.
+	 * Segments are read and written by position from several threads.
+	 *
+	 * @param pass passphrase byte array
+	 * @param in the message file
+	 * @param out the cryptogram file, open for writing
+	 * @param segmentSize bytes per segment, positive
+	 * @throws IOException if reading or writing fails
+	 */
+	public static void encrypt(byte[] pass, FileChannel in, FileChannel out, int segmentSize) throws IOException {
+		encrypt(pass, in.size(), segmentSize, (pos, buf, len) -> readFully(in, buf, len, pos),
+				(pos, buf, len) -> writeFully(out, buf, len, pos));
+	}
+
+	/**
+	 * Decrypts a segmented cryptogram file into another file.
+	 * The message is written before all tags are checked: if this returns false,
+	 * the output file must be discarded.
+	 *
+	 * @param pass passphrase byte array
+	 * @param in the cryptogram file
+	 * @param out the message file, open for writing
+	 * @return true if, and only if, the cryptogram is well formed and every tag matches
+	 * @throws IOException if reading or writing fails
+	 */
+	public static boolean decrypt(byte[] pass, FileChannel in, FileChannel out) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		if (in.size() < HEADER) {
+			return false;
+		}
+		readFully(in, header.array(), HEADER, 0);
+		header = header(header, in.size());
+		if (header == null) {
+			return false;
+		}
+		return decrypt(pass, header, (pos, buf, len) -> readFully(in, buf, len, pos),
+				(pos, buf, len) -> writeFully(out, buf, len, pos));
+	}
+
+	/**
+	 * Decrypts segment index of a segmented cryptogram file, reading only the
+	 * header and that segment. Only t_i is checked, not the final tag t, so this
+	 * does not detect segments that were cut from the end of the file.
+	 *
+	 * @param pass passphrase byte array
+	 * @param in the cryptogram file
+	 * @param index the segment number, from 0
+	 * @return the message bytes of that segment, or null if the cryptogram is malformed or t_i does not match
+	 * @throws IOException if reading fails
+	 * @throws IndexOutOfBoundsException if there is no such segment
+	 */
+	public static byte[] decryptSegment(byte[] pass, FileChannel in, long index) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		if (in.size() < HEADER) {
+			return null;
+		}
+		readFully(in, header.array(), HEADER, 0);
+		header = header(header, in.size());
+		if (header == null) {
+			return null;
+		}
+		int segmentSize = header.getInt(1);
+		long length = header.getLong(5);
+		long n = segments(length, segmentSize);
+		if (index < 0 || index >= n) {
+			throw new IndexOutOfBoundsException("Segment " + index + " of " + n + ".");
+		}
+		byte[][] keys = keys(header, pass);
+		int len = (int) Math.min(segmentSize, length - index * segmentSize);
+		byte[] buf = new byte[len + TAG];
+		readFully(in, buf, buf.length, HEADER + index * (segmentSize + (long) TAG));
+		byte[] tp = decryptSegment(keys, index, buf, len);
+		return MessageDigest.isEqual(tp, Arrays.copyOfRange(buf, len, len + TAG)) ? Arrays.copyOf(buf, len) : null;
+	}
+
+	/**
+	 * Length of the cryptogram of a message.
+	 *
+	 * @param length message length in bytes
+	 * @param segmentSize bytes per segment, positive
+	 * @return header, ciphertext and all tags
+	 */
+	public static long size(long length, int segmentSize) {
+		if (segmentSize <= 0) {
+			throw new IllegalArgumentException("Segment size must be positive.");
+		}
+		return HEADER + length + (segments(length, segmentSize) + 1) * TAG;
+	}
+
+	/**
+	 * Number of segments of a message, ceil(length / segmentSize).
+	 */
+	private static long segments(long length, int segmentSize) {
+		return (length + segmentSize - 1) / segmentSize;
+	}
+
+	/**
+	 * Writes the header, all segments and the final tag of a message of the given length.
+	 */
+	private static void encrypt(byte[] pass, long length, int segmentSize, Source m, Sink crp) throws IOException {
+		if (segmentSize <= 0) {
+			throw new IllegalArgumentException("Segment size must be positive.");
+		}
+		long n = segments(length, segmentSize);
+		//z <-- Random(512)
+		byte[] z = new byte[64];
+		new SecureRandom().nextBytes(z);
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		header.put(VERSION).putInt(segmentSize).putLong(length).put(z);
+		crp.write(0, header.array(), HEADER);
+		byte[][] keys = keys(header, pass);
+		byte[] tags = tags(n);
+		run(new Segments(0, n, i -> {
+			int len = (int) Math.min(segmentSize, length - i * segmentSize);
+			byte[] buf = new byte[len + TAG];
+			m.read(i * segmentSize, buf, len);
+			//t_i <-- KMACXOF256(ka, m_i, 512, "SKA" || left_encode(i))
+			SHA3 mac = new SHA3();
+			mac.initStandardKMACXOF256(keys[1], customization(SKA, i));
+			mac.update(buf, 0, len);
+			mac.squeeze(buf, len, TAG);
+			System.arraycopy(buf, len, tags, (int) i * TAG, TAG);
+			//c_i <-- KMACXOF256(ke, "", |m_i|, "SKE" || left_encode(i)) XOR m_i
+			SHA3 ke = new SHA3();
+			ke.initStandardKMACXOF256(keys[0], customization(SKE, i));
+			ke.squeezeXor(buf, 0, buf, 0, len);
+			crp.write(HEADER + i * (segmentSize + (long) TAG), buf, buf.length);
+		}));
+		byte[] t = finalTag(keys, header, tags, n);
+		crp.write(HEADER + length + n * TAG, t, TAG);
+	}
+
+	/**
+	 * Decrypts all segments after the header has been checked.
+	 * @return true if, and only if, every t_i and t match
+	 */
+	private static boolean decrypt(byte[] pass, ByteBuffer header, Source crp, Sink m) throws IOException {
+		int segmentSize = header.getInt(1);
+		long length = header.getLong(5);
+		long n = segments(length, segmentSize);
+		byte[][] keys = keys(header, pass);
+		byte[] tags = tags(n);
+		AtomicBoolean valid = new AtomicBoolean(true);
+		run(new Segments(0, n, i -> {
+			int len = (int) Math.min(segmentSize, length - i * segmentSize);
+			byte[] buf = new byte[len + TAG];
+			crp.read(HEADER + i * (segmentSize + (long) TAG), buf, buf.length);
+			byte[] tp = decryptSegment(keys, i, buf, len);
+			//accept if, and only if, t_i' = t_i
+			if (!MessageDigest.isEqual(tp, Arrays.copyOfRange(buf, len, len + TAG))) {
+				valid.set(false);
+			}
+			System.arraycopy(tp, 0, tags, (int) i * TAG, TAG);
+			m.write(i * segmentSize, buf, len);
+		}));
+		byte[] t = new byte[TAG];
+		crp.read(HEADER + length + n * TAG, t, TAG);
+		return valid.get() && MessageDigest.isEqual(t, finalTag(keys, header, tags, n));
+	}
+
+	/**
+	 * Decrypts c_i in place in buf[0, len).
+	 * @return t_i' of the decrypted segment
+	 */
+	private static byte[] decryptSegment(byte[][] keys, long i, byte[] buf, int len) {
+		//m_i <-- KMACXOF256(ke, "", |c_i|, "SKE" || left_encode(i)) XOR c_i
+		SHA3 ke = new SHA3();
+		ke.initStandardKMACXOF256(keys[0], customization(SKE, i));
+		ke.squeezeXor(buf, 0, buf, 0, len);
+		//t_i' <-- KMACXOF256(ka, m_i, 512, "SKA" || left_encode(i))
+		SHA3 mac = new SHA3();
+		mac.initStandardKMACXOF256(keys[1], customization(SKA, i));
+		mac.update(buf, 0, len);
+		byte[] tp = new byte[TAG];
+		mac.squeeze(tp, 0, TAG);
+		return tp;
+	}
+
+	/**
+	 * Checks the header against the cryptogram length.
+	 * @param b buffer holding at least the header from position 0
+	 * @param size cryptogram length in bytes
+	 * @return the header, or null if it is not a version 1 header for a cryptogram of this length
+	 */
+	private static ByteBuffer header(ByteBuffer b, long size) {
+		if (size < HEADER || b.get(0) != VERSION) {
+			return null;
+		}
+		int segmentSize = b.getInt(1);
+		long length = b.getLong(5);
+		if (segmentSize <= 0 || length < 0 || length > size || size(length, segmentSize) != size) {
+			return null;
+		}
+		return ByteBuffer.wrap(Arrays.copyOf(b.array(), HEADER));
+	}
+
+	/**
+	 * (ke || ka) <-- KMACXOF256(z || pw, "", 1024, "S") for the z in the header.
+	 * @return {ke, ka}
+	 */
+	private static byte[][] keys(ByteBuffer header, byte[] pass) {
+		byte[] zpw = Arrays.copyOfRange(header.array(), HEADER - 64, HEADER + pass.length);
+		System.arraycopy(pass, 0, zpw, 64, pass.length);
+		SHA3 kmac = new SHA3();
+		kmac.initStandardKMACXOF256(zpw, S);
+		byte[] keka = new byte[128];
+		kmac.squeeze(keka, 0, keka.length);
+		return new byte[][] {Arrays.copyOfRange(keka, 0, 64), Arrays.copyOfRange(keka, 64, 128)};
+	}
+
+	/**
+	 * t <-- KMACXOF256(ka, header || t_0 || ... || t_n-1 || right_encode(n), 512, "SKA")
+	 */
+	private static byte[] finalTag(byte[][] keys, ByteBuffer header, byte[] tags, long n) {
+		SHA3 mac = new SHA3();
+		mac.initStandardKMACXOF256(keys[1], SKA);
+		mac.update(header.array(), 0, HEADER);
+		mac.update(tags, 0, tags.length);
+		byte[] encN = SHA3.right_encode(n);
+		mac.update(encN, 0, encN.length);
+		byte[] t = new byte[TAG];
+		mac.squeeze(t, 0, TAG);
+		return t;
+	}
+
+	/**
+	 * Room for the n segment tags.
+	 */
+	private static byte[] tags(long n) {
+		if (n > Integer.MAX_VALUE / TAG) {
+			throw new IllegalArgumentException("Too many segments, use a larger segment size.");
+		}
+		return new byte[(int) n * TAG];
+	}
+
+	/**
+	 * prefix || left_encode(i)
+	 */
+	private static byte[] customization(byte[] prefix, long i) {
+		byte[] enc = SHA3.left_encode(i);
+		byte[] s = Arrays.copyOf(prefix, prefix.length + enc.length);
+		System.arraycopy(enc, 0, s, prefix.length, enc.length);
+		return s;
+	}
+
+	/**
+	 * Runs the task on the common pool, rethrowing the IOException of a failed segment.
+	 */
+	private static void run(Segments task) throws IOException {
+		try {
+			ForkJoinPool.commonPool().invoke(task);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Processing of one segment by its index.
+	 */
+	private interface Step {
+		void process(long i) throws IOException;
+	}
+
+	/**
+	 * Processes a range of segments, splitting it in halves until one segment remains.
+	 */
+	private static final class Segments extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long from, to;
+		private final Step step;
+
+		/**
+		 * @param from first segment
+		 * @param to one past the last segment
+		 * @param step what to do with each segment
+		 */
+		Segments(long from, long to, Step step) {
+			this.from = from;
+			this.to = to;
+			this.step = step;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				long mid = (from + to) >>> 1;
+				invokeAll(new Segments(from, mid, step), new Segments(mid, to, step));
+				return;
+			}
+			for (long i = from; i < to; i++) {
+				try {
+					step.process(i);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads len bytes at pos into buf.
+	 * @throws EOFException if the file ends first
+	 */
+	private static void readFully(FileChannel in, byte[] buf, int len, long pos) throws IOException {
+		ByteBuffer b = ByteBuffer.wrap(buf, 0, len);
+		while (b.hasRemaining()) {
+			int r = in.read(b, pos + b.position());
+			if (r < 0) {
+				throw new EOFException("File ended early.");
+			}
+		}
+	}
+
+	/**
+	 * Writes len bytes of buf at pos.
+	 */
+	private static void writeFully(FileChannel out, byte[] buf, int len, long pos) throws IOException {
+		ByteBuffer b = ByteBuffer.wrap(buf, 0, len);
+		while (b.hasRemaining()) {
+			out.write(b, pos + b.position());
+		}
+	}
+}
@@ -1,6 +1,13 @@
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Arrays;
 
@@ -18,6 +25,11 @@ public class SymmetricEncryptDecrypt {
 	 */
 	private static boolean isValid;
 	
+	/**
+	 * Bytes of message processed per step by the streaming methods.
+	 */
+	static final int CHUNK = 1 << 16;
+	
 	
 	/**
 	 * Encrypts byte array under passphrase.
@@ -34,23 +46,19 @@ public class SymmetricEncryptDecrypt {
 		byte[] z = new byte[64];
 		r.nextBytes(z);
 		//(ke || ka) <-- KMACXOF256(z || pw, , 1024, S)
-		byte[] keka = SHA3.KMACXOF256(mergeArrays(z, pass), "".getBytes(), 1024, "S".getBytes());
+		byte[] keka = SHA3.KMACXOF256(mergeArrays(z, pass), "".getBytes(), 1024, SHA3.Domain.S);
 		//c <-- KMACXOF256(ke, , |m|, SKE) XOR m
-		byte[] ke = Arrays.copyOfRange(keka, 0, 64);
-		byte[] temp = SHA3.KMACXOF256(ke, "".getBytes(), m.length*8, "SKE".getBytes());
-		byte[] c = new byte[m.length];
-		for (int i = 0; i < m.length; i++) {
-			c[i] = (byte) (temp[i] ^ m[i]);
-		}
+		//symmetric cryptogram: (z, c, t), c squeezed straight into place
+		byte[] res = new byte[z.length + m.length + 64];
+		System.arraycopy(z, 0, res, 0, z.length);
+		SHA3 ke = new SHA3();
+		ke.initKMACXOF256(Arrays.copyOfRange(keka, 0, 64), SHA3.Domain.SKE);
+		ke.squeezeXor(m, 0, res, z.length, m.length);
 		//t <-- KMACXOF256(ka, m, 512, SKA)
 		byte[] ka = Arrays.copyOfRange(keka, 64, 128);
-		byte[] t = SHA3.KMACXOF256(ka, m, 512, "SKA".getBytes());
-		//symmetric cryptogram: (z, c, t)
-		ByteArrayOutputStream res = new ByteArrayOutputStream();
-		res.write(z);
-		res.write(c);
-		res.write(t);
-		return res.toByteArray();	
+		byte[] t = SHA3.KMACXOF256(ka, m, 512, SHA3.Domain.SKA);
+		System.arraycopy(t, 0, res, z.length + m.length, t.length);
+		return res;	
 	}
 	
 	
@@ -66,15 +74,14 @@ public class SymmetricEncryptDecrypt {
 	 */
 	public static byte[] symmDecrypt(byte[] z, byte[] pass, byte[] c, byte[] t) throws IOException {
 		//(ke || ka) <-- KMACXOF256(z || pw, , 1024, S)
-		byte[] keka = SHA3.KMACXOF256(mergeArrays(z, pass), "".getBytes(), 1024, "S".getBytes());
+		byte[] keka = SHA3.KMACXOF256(mergeArrays(z, pass), "".getBytes(), 1024, SHA3.Domain.S);
 		//m <-- KMACXOF256(ke, , |c|, SKE) XOR c
-		byte[] temp = SHA3.KMACXOF256(Arrays.copyOfRange(keka, 0, 64), "".getBytes(), c.length*8, "SKE".getBytes());
+		SHA3 ke = new SHA3();
+		ke.initKMACXOF256(Arrays.copyOfRange(keka, 0, 64), SHA3.Domain.SKE);
 		byte[] m = new byte[c.length];
-		for (int i =0; i < c.length; i++) {
-			m[i] = (byte) (c[i] ^ temp[i]);
-		}
+		ke.squeezeXor(c, 0, m, 0, c.length);
 		//t <-- KMACXOF256(ka, m, 512, SKA)
-		byte[] tp = SHA3.KMACXOF256(Arrays.copyOfRange(keka, 64, 128), m, 512, "SKA".getBytes());
+		byte[] tp = SHA3.KMACXOF256(Arrays.copyOfRange(keka, 64, 128), m, 512, SHA3.Domain.SKA);
 		//accept if, and only if, t = t
 		isValid = Arrays.equals(t, tp);
 		if(isValid) {
@@ -85,6 +92,170 @@ public class SymmetricEncryptDecrypt {
 		}
 	}
 	
+	/**
+	 * Encrypts everything readable from in under passphrase and writes the
+	 * cryptogram (z, c, t) to out, the same bytes symmEncrypt(pass, m, ...) returns.
+	 * The SKE keystream is squeezed and the SKA tag absorbed one chunk at a time,
+	 * so memory use does not depend on the input length, and the length is not
+	 * limited to an int.
+	 * 
+	 * @param pass passphrase byte array
+	 * @param in message source, read to its end
+	 * @param out cryptogram sink
+	 * @throws IOException if reading or writing fails
+	 */
+	public static void symmEncrypt(byte[] pass, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		//z <-- Random(512)
+		SecureRandom r = new SecureRandom();
+		byte[] z = new byte[64];
+		r.nextBytes(z);
+		SHA3[] keys = keys(z, pass);
+		writeFully(out, ByteBuffer.wrap(z));
+		//c <-- KMACXOF256(ke, "", |m|, "SKE") XOR m
+		//t <-- KMACXOF256(ka, m, 512, "SKA")
+		encryptChunks(keys[0], keys[1], in, out);
+	}
+	
+	/**
+	 * Decrypts a cryptogram (z, c, t) read from in and writes the message to out.
+	 * The last 64 bytes read are held back as the tag, so c is streamed without
+	 * knowing its length in advance.
+	 * The message is written before t can be checked: if this returns false,
+	 * everything written to out must be discarded.
+	 * 
+	 * @param pass passphrase byte array
+	 * @param in cryptogram source, read to its end
+	 * @param out message sink
+	 * @return true if, and only if, t' = t
+	 * @throws IOException if reading or writing fails
+	 */
+	public static boolean symmDecrypt(byte[] pass, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		ByteBuffer zb = ByteBuffer.allocate(64);
+		if (readFully(in, zb)) {
+			return false;
+		}
+		SHA3[] keys = keys(zb.array(), pass);
+		byte[] buf = new byte[CHUNK + 64];
+		ByteBuffer bb = ByteBuffer.wrap(buf);
+		int held = 0;
+		boolean eof = false;
+		while (!eof) {
+			bb.clear().position(held);
+			eof = readFully(in, bb);
+			held = bb.position();
+			if (held > 64) {
+				int n = held - 64;
+				//m <-- KMACXOF256(ke, "", |c|, "SKE") XOR c
+				keys[0].squeezeXor(buf, 0, buf, 0, n);
+				//t' <-- KMACXOF256(ka, m, 512, "SKA")
+				keys[1].update(buf, 0, n);
+				writeFully(out, ByteBuffer.wrap(buf, 0, n));
+				System.arraycopy(buf, n, buf, 0, 64);
+				held = 64;
+			}
+		}
+		if (held < 64) {
+			return false;
+		}
+		byte[] tp = new byte[64];
+		keys[1].squeeze(tp, 0, tp.length);
+		//accept if, and only if, t' = t
+		return MessageDigest.isEqual(tp, Arrays.copyOf(buf, 64));
+	}
+	
+	/**
+	 * Stream form of symmEncrypt over channels.
+	 * 
+	 * @param pass passphrase byte array
+	 * @param in message source, read to its end and not closed
+	 * @param out cryptogram sink, not closed
+	 * @throws IOException if reading or writing fails
+	 */
+	public static void symmEncrypt(byte[] pass, InputStream in, OutputStream out) throws IOException {
+		symmEncrypt(pass, Channels.newChannel(in), Channels.newChannel(out));
+	}
+	
+	/**
+	 * Stream form of symmDecrypt over channels.
+	 * If this returns false, everything written to out must be discarded.
+	 * 
+	 * @param pass passphrase byte array
+	 * @param in cryptogram source, read to its end and not closed
+	 * @param out message sink, not closed
+	 * @return true if, and only if, t' = t
+	 * @throws IOException if reading or writing fails
+	 */
+	public static boolean symmDecrypt(byte[] pass, InputStream in, OutputStream out) throws IOException {
+		return symmDecrypt(pass, Channels.newChannel(in), Channels.newChannel(out));
+	}
+	
+	/**
+	 * Derives (ke || ka) from z and the passphrase.
+	 * @return the SKE keystream sponge and the SKA MAC sponge, both ready for use
+	 */
+	private static SHA3[] keys(byte[] z, byte[] pass) throws IOException {
+		//(ke || ka) <-- KMACXOF256(z || pw, "", 1024, "S")
+		byte[] keka = SHA3.KMACXOF256(mergeArrays(z, pass), "".getBytes(), 1024, SHA3.Domain.S);
+		SHA3 ke = new SHA3();
+		ke.initKMACXOF256(Arrays.copyOfRange(keka, 0, 64), SHA3.Domain.SKE);
+		SHA3 ka = new SHA3();
+		ka.initKMACXOF256(Arrays.copyOfRange(keka, 64, 128), SHA3.Domain.SKA);
+		return new SHA3[] {ke, ka};
+	}
+	
+	/**
+	 * Streams c = keystream XOR m from in to out, then appends the 64-byte tag.
+	 * Shared by the symmetric and the elliptic streaming encryption.
+	 * The KMACXOF256 output does not depend on L, so squeezing it in pieces
+	 * gives the same keystream as one call with L = 8|m|.
+	 * 
+	 * @param ke keystream sponge, squeezed as needed
+	 * @param ka MAC sponge, absorbs m
+	 * @param in message source, read to its end
+	 * @param out sink for c || t
+	 * @throws IOException if reading or writing fails
+	 */
+	static void encryptChunks(SHA3 ke, SHA3 ka, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		byte[] buf = new byte[CHUNK];
+		ByteBuffer bb = ByteBuffer.wrap(buf);
+		boolean eof = false;
+		while (!eof) {
+			bb.clear();
+			eof = readFully(in, bb);
+			int n = bb.position();
+			//absorbed before m is overwritten
+			ka.update(buf, 0, n);
+			ke.squeezeXor(buf, 0, buf, 0, n);
+			bb.flip();
+			writeFully(out, bb);
+		}
+		byte[] t = new byte[64];
+		ka.squeeze(t, 0, t.length);
+		writeFully(out, ByteBuffer.wrap(t));
+	}
+	
+	/**
+	 * Reads until b is full or the channel ends.
+	 * @return true if the channel ended
+	 */
+	static boolean readFully(ReadableByteChannel in, ByteBuffer b) throws IOException {
+		while (b.hasRemaining()) {
+			if (in.read(b) < 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Writes all of b, for channels that write only part of it per call.
+	 */
+	static void writeFully(WritableByteChannel out, ByteBuffer b) throws IOException {
+		while (b.hasRemaining()) {
+			out.write(b);
+		}
+	}
+	
 	/**
 	 * Helper method. Merges two arrays.
 	 * @param a input byte array 1
@@ -0,0 +1,130 @@
+import java.nio.ByteBuffer;
+
+/**
+ * TupleHash256 and TupleHashXOF256, as specified per NIST SP 800-185 sec. 5.
+ * Each field is absorbed as encode_string(X_i) straight from the caller's 
+ * array or buffer, so a record is hashed without first building one 
+ * concatenated copy of its fields.
+ */
+public class TupleHash {
+	
+	/**
+	 * Function name of the cSHAKE256 call.
+	 */
+	private static final byte[] N = "TupleHash".getBytes();
+	
+	/**
+	 * Not instantiable, all entry points are static.
+	 */
+	private TupleHash() {}
+	
+	/**
+	 * TupleHash256 as specified per NIST SP 800-185 sec. 5.3.
+	 * 
+	 * Validity Conditions: len(S) < 2^2040
+	 * @param X the tuple of input bitstrings
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring, null for the empty string
+	 * @return the L-bit hash
+	 */
+	public static byte[] TupleHash256(byte[][] X, int L, byte[] S) {
+		SHA3 sha3 = init(S);
+		for (byte[] x : X) {
+			absorbEncoded(sha3, x.length);
+			sha3.update(x, 0, x.length);
+		}
+		return finish(sha3, L, false);
+	}
+	
+	/**
+	 * TupleHashXOF256 as specified per NIST SP 800-185 sec. 5.3.1.
+	 * 
+	 * Validity Conditions: len(S) < 2^2040
+	 * @param X the tuple of input bitstrings
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring, null for the empty string
+	 * @return the L-bit hash
+	 */
+	public static byte[] TupleHashXOF256(byte[][] X, int L, byte[] S) {
+		SHA3 sha3 = init(S);
+		for (byte[] x : X) {
+			absorbEncoded(sha3, x.length);
+			sha3.update(x, 0, x.length);
+		}
+		return finish(sha3, L, true);
+	}
+	
+	/**
+	 * TupleHash256 over the remaining bytes of each buffer.
+	 * The buffers' positions are left unchanged.
+	 * 
+	 * Validity Conditions: len(S) < 2^2040
+	 * @param X the tuple of input bitstrings
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring, null for the empty string
+	 * @return the L-bit hash
+	 */
+	public static byte[] TupleHash256(ByteBuffer[] X, int L, byte[] S) {
+		SHA3 sha3 = init(S);
+		for (ByteBuffer x : X) {
+			absorbEncoded(sha3, x.remaining());
+			sha3.update(x.duplicate());
+		}
+		return finish(sha3, L, false);
+	}
+	
+	/**
+	 * TupleHashXOF256 over the remaining bytes of each buffer.
+	 * The buffers' positions are left unchanged.
+	 * 
+	 * Validity Conditions: len(S) < 2^2040
+	 * @param X the tuple of input bitstrings
+	 * @param L the requested output length in bits (integer)
+	 * @param S customization bitstring, null for the empty string
+	 * @return the L-bit hash
+	 */
+	public static byte[] TupleHashXOF256(ByteBuffer[] X, int L, byte[] S) {
+		SHA3 sha3 = init(S);
+		for (ByteBuffer x : X) {
+			absorbEncoded(sha3, x.remaining());
+			sha3.update(x.duplicate());
+		}
+		return finish(sha3, L, true);
+	}
+	
+	/**
+	 * Starts cSHAKE256(., ., "TupleHash", S).
+	 * @param S customization bitstring, null for the empty string
+	 * @return the initialized sponge
+	 */
+	private static SHA3 init(byte[] S) {
+		SHA3 sha3 = new SHA3();
+		sha3.initStandardcSHAKE256(N, S);
+		return sha3;
+	}
+	
+	/**
+	 * Absorbs left_encode(len(X_i)), the header of encode_string(X_i).
+	 * @param sha3 the sponge
+	 * @param len length of the field in bytes
+	 */
+	private static void absorbEncoded(SHA3 sha3, long len) {
+		byte[] enc = SHA3.left_encode(len << 3);
+		sha3.update(enc, 0, enc.length);
+	}
+	
+	/**
+	 * Absorbs right_encode(L), or right_encode(0) for the XOF, and squeezes the output.
+	 * @param sha3 the sponge
+	 * @param L the requested output length in bits (integer)
+	 * @param xof true for TupleHashXOF256
+	 * @return the L-bit hash
+	 */
+	private static byte[] finish(SHA3 sha3, int L, boolean xof) {
+		byte[] encL = SHA3.right_encode(xof ? 0 : L);
+		sha3.update(encL, 0, encL.length);
+		byte[] result = new byte[L >>> 3];
+		sha3.squeeze(result, 0, result.length);
+		return result;
+	}
+}
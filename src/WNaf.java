@@ -0,0 +1,209 @@
+import java.math.BigInteger;
+
+/**
+ * Variable-base scalar multiplication with width-w NAF recoding.
+ * The scalar is rewritten as sum of k_i 2^i with every nonzero k_i odd,
+ * |k_i| < 2^(w-1), and any w consecutive digits holding at most one nonzero.
+ * With w = 5 that is one addition per 6 bits on average, against one per 2 bits
+ * for plain double-and-add, paid for by a per-call table of 8 odd multiples.
+ * Two multiplications can share their doublings (Straus-Shamir).
+ */
+final class WNaf {
+
+	/**
+	 * Window width, digits are odd and in (-16, 16).
+	 */
+	static final int WIDTH = 5;
+
+	/**
+	 * Window width used with the shared table for G.
+	 */
+	static final int G_WIDTH = 7;
+
+	private WNaf() {
+	}
+
+	/**
+	 * Recodes a non-negative scalar into width-w NAF, reading its bits directly.
+	 * @param k scalar, k >= 0
+	 * @param w window width, 2 <= w <= 8
+	 * @return digits, least significant first, length k.bitLength() + 1
+	 */
+	static byte[] recode(BigInteger k, int w) {
+		int len = k.bitLength();
+		byte[] naf = new byte[len + 1];
+		int carry = 0;
+		int bit = 0;
+		while (bit < len) {
+			//a bit equal to the carry yields a zero digit and keeps the carry
+			if ((k.testBit(bit) ? 1 : 0) == carry) {
+				bit++;
+				continue;
+			}
+			int now = Math.min(w, len - bit);
+			int word = carry;
+			for (int i = 0; i < now; i++) {
+				if (k.testBit(bit + i)) {
+					word += 1 << i;
+				}
+			}
+			//digits at or above 2^(w-1) become negative and carry into the next window
+			carry = (word >> (w - 1)) & 1;
+			naf[bit] = (byte) (word - (carry << w));
+			bit += now;
+		}
+		naf[len] = (byte) carry;
+		return naf;
+	}
+
+	/**
+	 * Odd multiples P, 3P, ..., (2^(w-1) - 1)P.
+	 * @param p the base point
+	 * @param w window width
+	 * @return table[i] = (2i + 1)P
+	 */
+	static PrecomputedPoint[] oddMultiples(ExtendedECPoint p, int w) {
+		ExtendedECPoint[] pts = oddMultiplesExtended(p, w);
+		PrecomputedPoint[] table = new PrecomputedPoint[pts.length];
+		for (int i = 0; i < pts.length; i++) {
+			table[i] = new PrecomputedPoint(pts[i]);
+		}
+		return table;
+	}
+
+	private static ExtendedECPoint[] oddMultiplesExtended(ExtendedECPoint p, int w) {
+		ExtendedECPoint[] pts = new ExtendedECPoint[1 << (w - 2)];
+		ExtendedECPoint twice = new ExtendedECPoint().set(p).dbl();
+		pts[0] = new ExtendedECPoint().set(p);
+		for (int i = 1; i < pts.length; i++) {
+			pts[i] = new ExtendedECPoint().set(pts[i - 1]).add(twice);
+		}
+		return pts;
+	}
+
+	/**
+	 * Computes k * P.
+	 * @param k any scalar, a negative one multiplies -P
+	 * @param p the point to be multiplied
+	 * @return the point k * P
+	 */
+	static ECPoint multiply(BigInteger k, ECPoint p) {
+		return sum(new Term(k, p)).toAffine();
+	}
+
+	/**
+	 * Computes a * P + b * Q with one shared chain of doublings (Straus-Shamir):
+	 * both scalars are recoded and their digits are added in the same pass,
+	 * so the doublings of the second multiplication come for free.
+	 * @param a scalar for P, any sign
+	 * @param p first point
+	 * @param b scalar for Q, any sign
+	 * @param q second point
+	 * @return the point a * P + b * Q
+	 */
+	static ECPoint multiply(BigInteger a, ECPoint p, BigInteger b, ECPoint q) {
+		return sum(new Term(a, p), new Term(b, q)).toAffine();
+	}
+
+	/**
+	 * Computes a[i] * P[i] + b[i] * Q[i] for every i, each as in
+	 * multiply(a, P, b, Q), with one inversion for the whole batch.
+	 * @param a scalars for P
+	 * @param p first points
+	 * @param b scalars for Q
+	 * @param q second points
+	 * @return the points a[i] * P[i] + b[i] * Q[i]
+	 */
+	static ECPoint[] multiply(BigInteger[] a, ECPoint[] p, BigInteger[] b, ECPoint[] q) {
+		ExtendedECPoint[] u = new ExtendedECPoint[a.length];
+		for (int i = 0; i < u.length; i++) {
+			u[i] = sum(new Term(a[i], p[i]), new Term(b[i], q[i]));
+		}
+		ExtendedECPoint.normalize(u, 0, u.length);
+		ECPoint[] res = new ECPoint[u.length];
+		for (int i = 0; i < u.length; i++) {
+			res[i] = ECPoint.trusted(u[i].X.toBigInteger(), u[i].Y.toBigInteger());
+		}
+		return res;
+	}
+
+	/**
+	 * Interleaved evaluation of the terms' digits, most significant first.
+	 */
+	private static ExtendedECPoint sum(Term... terms) {
+		int len = 0;
+		for (Term t : terms) {
+			len = Math.max(len, t.naf.length);
+		}
+		ExtendedECPoint V = new ExtendedECPoint();
+		boolean started = false;
+		for (int i = len - 1; i >= 0; i--) {
+			if (started) {
+				V.dbl();
+			}
+			for (Term t : terms) {
+				if (i >= t.naf.length) {
+					continue;
+				}
+				int digit = t.naf[i];
+				if (digit > 0) {
+					V.addPrecomputed(t.table[digit >> 1]);
+					started = true;
+				} else if (digit < 0) {
+					V.subPrecomputed(t.table[-digit >> 1]);
+					started = true;
+				}
+			}
+		}
+		return V;
+	}
+
+	/**
+	 * One scalar and its point: the recoded scalar and the odd multiples it indexes.
+	 * Multiples of G reuse a shared, wider table of affine points.
+	 */
+	private static final class Term {
+
+		final byte[] naf;
+		final PrecomputedPoint[] table;
+
+		Term(BigInteger k, ECPoint p) {
+			if (p.equals(ECPoint.G)) {
+				//G has order r, reducing makes k non-negative
+				naf = recode(k.mod(ECPoint.R), G_WIDTH);
+				table = GTable.ODD;
+			} else {
+				ExtendedECPoint base = ExtendedECPoint.fromAffine(p);
+				if (k.signum() < 0) {
+					base.negate();
+					k = k.negate();
+				}
+				naf = recode(k, WIDTH);
+				table = oddMultiples(base, WIDTH);
+			}
+		}
+	}
+
+	/**
+	 * Odd multiples (2i + 1)P for i in [0, 2^(w-2)), normalized to Z = 1.
+	 * @param p the base point
+	 * @param w window width
+	 * @return table[i] = (2i + 1)P
+	 */
+	static PrecomputedPoint[] normalizedOddMultiples(ECPoint p, int w) {
+		ExtendedECPoint[] pts = oddMultiplesExtended(ExtendedECPoint.fromAffine(p), w);
+		ExtendedECPoint.normalize(pts, 0, pts.length);
+		PrecomputedPoint[] table = new PrecomputedPoint[pts.length];
+		for (int i = 0; i < pts.length; i++) {
+			table[i] = new PrecomputedPoint(pts[i]);
+		}
+		return table;
+	}
+
+	/**
+	 * Odd multiples G, 3G, ..., 63G, normalized to Z = 1, loaded or built on first use.
+	 */
+	private static final class GTable {
+		static final PrecomputedPoint[] ODD = PointTables.oddMultiples();
+	}
+}
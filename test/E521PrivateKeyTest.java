@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The key handle against the passphrase API, and its behavior once closed.
+ */
+class E521PrivateKeyTest {
+
+	private static final byte[] PW = "pw".getBytes();
+
+	@Test
+	void matchesPassphraseApi() throws IOException {
+		byte[] m = "message".getBytes();
+		try (E521PrivateKey key = new E521PrivateKey(PW)) {
+			assertEquals(ECC.keyPair(PW), key.getPublicKey());
+			assertArrayEquals(ECC.keyPair(PW).ptToBytes(), key.getEncodedPublicKey());
+			byte[] crp = ECC.ECEncrypt(key.getPublicKey(), m, "");
+			int n = crp.length;
+			assertArrayEquals(m, key.decrypt(ECPoint.bytesToPt(Arrays.copyOf(crp, 67)),
+					Arrays.copyOfRange(crp, 67, n - 64), Arrays.copyOfRange(crp, n - 64, n)));
+			assertTrue(ECC.verify(key.sign(m), m, key.getPublicKey()));
+		}
+	}
+
+	@Test
+	void closedKeyRefusesUse() {
+		E521PrivateKey key = new E521PrivateKey(PW);
+		key.close();
+		assertThrows(IllegalStateException.class, () -> key.sign(new byte[1]));
+		assertThrows(IllegalStateException.class, () -> key.decrypt(ECPoint.G, new byte[0], new byte[64]));
+	}
+
+	@Test
+	void closeDuringUse() throws InterruptedException {
+		//every sign either sees the whole s and verifies, or refuses; none signs with a half-wiped s
+		byte[] m = new byte[1];
+		for (int round = 0; round < 20; round++) {
+			E521PrivateKey key = new E521PrivateKey(PW);
+			AtomicInteger bad = new AtomicInteger();
+			Thread signer = new Thread(() -> {
+				try {
+					while (true) {
+						if (!ECC.verify(key.sign(m), m, key.getPublicKey())) {
+							bad.incrementAndGet();
+						}
+					}
+				} catch (IllegalStateException e) {
+					//closed
+				} catch (IOException e) {
+					bad.incrementAndGet();
+				}
+			});
+			signer.start();
+			Thread.sleep(round % 4);
+			key.close();
+			signer.join();
+			assertEquals(0, bad.get());
+		}
+	}
+}
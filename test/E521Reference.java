@@ -0,0 +1,100 @@
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * E521 arithmetic straight from the affine Edwards formulas on BigInteger,
+ * with one modular inversion per operation, to check the fast paths against.
+ */
+final class E521Reference {
+
+	static final BigInteger P = ECPoint.P;
+
+	static final BigInteger R = ECPoint.R;
+
+	/**
+	 * The neutral element (0, 1).
+	 */
+	static final ECPoint O = new ECPoint();
+
+	/**
+	 * (0, -1), the point of order 2.
+	 */
+	static final ECPoint T2 = new ECPoint(BigInteger.ZERO, P.subtract(BigInteger.ONE));
+
+	private E521Reference() {
+	}
+
+	/**
+	 * (x1, y1) + (x2, y2) = ((x1 y2 + y1 x2) / (1 + d x1 x2 y1 y2), (y1 y2 - x1 x2) / (1 - d x1 x2 y1 y2))
+	 */
+	static ECPoint add(ECPoint a, ECPoint b) {
+		BigInteger x1 = a.getX(), y1 = a.getY(), x2 = b.getX(), y2 = b.getY();
+		BigInteger t = ECPoint.D.multiply(x1).multiply(x2).multiply(y1).multiply(y2).mod(P);
+		BigInteger x = x1.multiply(y2).add(y1.multiply(x2)).multiply(BigInteger.ONE.add(t).modInverse(P)).mod(P);
+		BigInteger y = y1.multiply(y2).subtract(x1.multiply(x2)).multiply(BigInteger.ONE.subtract(t).modInverse(P)).mod(P);
+		return new ECPoint(x, y);
+	}
+
+	/**
+	 * -(x, y) = (-x, y)
+	 */
+	static ECPoint negate(ECPoint a) {
+		return new ECPoint(a.getX().negate().mod(P), a.getY());
+	}
+
+	/**
+	 * k * p by double-and-add from the most significant bit, -k * p = k * (-p).
+	 */
+	static ECPoint multiply(BigInteger k, ECPoint p) {
+		if (k.signum() < 0) {
+			return multiply(k.negate(), negate(p));
+		}
+		ECPoint v = O;
+		for (int i = k.bitLength() - 1; i >= 0; i--) {
+			v = add(v, v);
+			if (k.testBit(i)) {
+				v = add(v, p);
+			}
+		}
+		return v;
+	}
+
+	/**
+	 * Edge scalars around 0, r, the group order 4r and 2^521, their negatives,
+	 * and random scalars of several sizes.
+	 * @param seed seed for the random part
+	 */
+	static BigInteger[] scalars(long seed) {
+		Random rnd = new Random(seed);
+		BigInteger two521 = BigInteger.ONE.shiftLeft(521);
+		return new BigInteger[] {
+				BigInteger.ZERO,
+				BigInteger.ONE,
+				BigInteger.TWO,
+				BigInteger.valueOf(3),
+				BigInteger.valueOf(4),
+				R.subtract(BigInteger.ONE),
+				R,
+				R.add(BigInteger.ONE),
+				R.shiftLeft(2),
+				R.shiftLeft(2).subtract(BigInteger.ONE),
+				two521.subtract(BigInteger.ONE),
+				two521,
+				BigInteger.ONE.negate(),
+				R.add(BigInteger.ONE).negate(),
+				new BigInteger(64, rnd),
+				new BigInteger(256, rnd),
+				new BigInteger(519, rnd),
+				new BigInteger(521, rnd),
+				new BigInteger(521, rnd).negate(),
+				new BigInteger(600, rnd)
+		};
+	}
+
+	/**
+	 * A random multiple of G.
+	 */
+	static ECPoint randomPoint(Random rnd) {
+		return multiply(new BigInteger(520, rnd), ECPoint.G);
+	}
+}
@@ -0,0 +1,132 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The streaming elliptic cryptogram against the byte[] one, in both directions,
+ * and decryption of modified, truncated and malformed cryptogram files.
+ */
+class ECCStreamingTest {
+
+	private static final byte[] PW = "pw".getBytes();
+
+	private static final ECPoint V = ECC.keyPair(PW);
+
+	private static final int CHUNK = SymmetricEncryptDecrypt.CHUNK;
+
+	@TempDir
+	Path dir;
+
+	private static byte[] message(int len) {
+		byte[] m = new byte[len];
+		for (int i = 0; i < len; i++) {
+			m[i] = (byte) (i * 31 + 7);
+		}
+		return m;
+	}
+
+	private byte[] streamEncrypt(byte[] m) throws IOException {
+		Path src = Files.write(dir.resolve("m"), m);
+		Path crp = dir.resolve("c");
+		try (FileChannel in = FileChannel.open(src);
+				FileChannel out = FileChannel.open(crp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ECC.ECEncrypt(V, in, out);
+		}
+		return Files.readAllBytes(crp);
+	}
+
+	/**
+	 * @return the message, or null if ECDecrypt(pw, FileChannel, out) returned false
+	 */
+	private byte[] streamDecrypt(byte[] crp) throws IOException {
+		Path file = Files.write(dir.resolve("c"), crp);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (FileChannel in = FileChannel.open(file)) {
+			return ECC.ECDecrypt(PW, in, Channels.newChannel(out)) ? out.toByteArray() : null;
+		}
+	}
+
+	private static byte[] arrayDecrypt(byte[] crp) {
+		int n = crp.length;
+		return ECC.ECDecrypt(PW, ECPoint.bytesToPt(Arrays.copyOf(crp, 67)),
+				Arrays.copyOfRange(crp, 67, n - 64), Arrays.copyOfRange(crp, n - 64, n));
+	}
+
+	@Test
+	void streamToArray() throws IOException {
+		for (int len : new int[] {0, 1, 64, CHUNK - 1, CHUNK, CHUNK + 1}) {
+			byte[] m = message(len);
+			byte[] crp = streamEncrypt(m);
+			assertEquals(67 + len + 64, crp.length);
+			assertArrayEquals(m, arrayDecrypt(crp), "length " + len);
+		}
+	}
+
+	@Test
+	void arrayToStream() throws IOException {
+		for (int len : new int[] {0, 1, 64, CHUNK - 1, CHUNK, CHUNK + 1}) {
+			byte[] m = message(len);
+			assertArrayEquals(m, streamDecrypt(ECC.ECEncrypt(V, m, "")), "length " + len);
+		}
+	}
+
+	@Test
+	void rejectsBadFilesQuietly() throws IOException {
+		byte[] crp = streamEncrypt(message(CHUNK + 1));
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(printed));
+		try {
+			//a bit of t, a bit of c
+			for (int pos : new int[] {crp.length - 1, crp.length - 64, 67}) {
+				byte[] bad = crp.clone();
+				bad[pos] ^= 1;
+				assertNull(streamDecrypt(bad), "byte " + pos);
+			}
+			//cut anywhere, down to shorter than Z and t together
+			for (int cut : new int[] {crp.length - 1, crp.length - 64, 67 + 64, 67 + 63, 67, 1, 0}) {
+				assertNull(streamDecrypt(Arrays.copyOf(crp, cut)), "cut at " + cut);
+			}
+			//Z with a bad parity byte, and with x >= p
+			byte[] bad = crp.clone();
+			bad[66] = 2;
+			assertNull(streamDecrypt(bad));
+			Arrays.fill(bad, 0, 67, (byte) 0xFF);
+			bad[66] = 0;
+			assertNull(streamDecrypt(bad));
+		} finally {
+			System.setOut(stdout);
+		}
+		assertEquals(0, printed.size(), printed.toString());
+	}
+
+	@Test
+	void byteArrayDecryptWithScalarIsQuiet() throws IOException {
+		byte[] crp = ECC.ECEncrypt(V, message(100), "");
+		crp[crp.length - 1] ^= 1;
+		int n = crp.length;
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream printed = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(printed));
+		try {
+			assertNull(ECC.decrypt(ECC.privateScalar(PW), ECPoint.bytesToPt(Arrays.copyOf(crp, 67)),
+					Arrays.copyOfRange(crp, 67, n - 64), Arrays.copyOfRange(crp, n - 64, n)));
+		} finally {
+			System.setOut(stdout);
+		}
+		assertEquals(0, printed.size(), printed.toString());
+	}
+}
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * multByScalar against the group laws and a multiple of G computed with plain
+ * BigInteger arithmetic on the affine Edwards formulas, and the point encoding.
+ */
+class ECPointTest {
+
+	private static final ECPoint O = new ECPoint();
+
+	/**
+	 * 2G, which is not G and so goes through wNAF rather than the comb.
+	 */
+	private static final ECPoint P = ECPoint.G.getSum(ECPoint.G);
+
+	private static final BigInteger K = new BigInteger("1F3A5C7E9B2D4F6081A3C5E7092B4D6F8193A5C7E9F0B2D4F6081A3C5E7092B4D6F"
+			+ "8193A5C7E9F0B2D4F6081A3C5E7092B4D6F8193A5C7E9F0B2D4F6081A3C5", 16);
+
+	@Test
+	void generatorIsTheEvenRootForX4() {
+		assertEquals(BigInteger.valueOf(4), ECPoint.G.getX());
+		assertEquals(new BigInteger("38323655458445572552474074524922764896486608619568788548234284097964210088578782437276342106867915"
+				+ "07168493732364650567836638782015285562571568855063494635788"), ECPoint.G.getY());
+	}
+
+	@Test
+	void orderOfG() {
+		assertEquals(O, ECPoint.multByScalar(ECPoint.R, ECPoint.G));
+		assertEquals(O, ECPoint.multByScalar(ECPoint.R, P));
+	}
+
+	@Test
+	void zeroAndOne() {
+		assertEquals(O, ECPoint.multByScalar(BigInteger.ZERO, ECPoint.G));
+		assertEquals(O, ECPoint.multByScalar(BigInteger.ZERO, P));
+		assertEquals(ECPoint.G, ECPoint.multByScalar(BigInteger.ONE, ECPoint.G));
+		assertEquals(P, ECPoint.multByScalar(BigInteger.ONE, P));
+	}
+
+	@Test
+	void negativeScalar() {
+		assertEquals(O.getOppositePt(ECPoint.multByScalar(K, ECPoint.G)), ECPoint.multByScalar(K.negate(), ECPoint.G));
+		assertEquals(O.getOppositePt(ECPoint.multByScalar(K, P)), ECPoint.multByScalar(K.negate(), P));
+	}
+
+	@Test
+	void fixedMultipleOfG() {
+		ECPoint expected = new ECPoint(
+				new BigInteger("61533512197921568989711063792867457072543784023907537545239335337807045388838998714682896607288072"
+						+ "27704139940222789695902150986390279083512549860850221378715"),
+				new BigInteger("53694162634278712621437318393920121348079388772894152426260882849582367130240445344646502283992577"
+						+ "95819826023179661450211686001560165902152745746557481100021"));
+		assertEquals(expected, ECPoint.multByScalar(K, ECPoint.G));
+		//K + R reduces to K in the comb, and K * 2G through wNAF is 2K * G through the comb
+		assertEquals(expected, ECPoint.multByScalar(K.add(ECPoint.R), ECPoint.G));
+		assertEquals(ECPoint.multByScalar(K.shiftLeft(1), ECPoint.G), ECPoint.multByScalar(K, P));
+	}
+
+	/**
+	 * The first point at or above x with the given y parity.
+	 */
+	private static ECPoint pointFrom(BigInteger x, boolean odd) {
+		while (true) {
+			ECPoint p = new ECPoint(x, odd);
+			if (p.getY() != null) {
+				return p;
+			}
+			x = x.add(BigInteger.ONE);
+		}
+	}
+
+	@Test
+	void encodingWithLeadingZeroBytes() {
+		//x of 1, 64, 65 and 66 bytes, the last with its top byte 0x00 or 0x01
+		BigInteger[] starts = {BigInteger.TWO, BigInteger.ONE.shiftLeft(511), BigInteger.ONE.shiftLeft(519),
+				BigInteger.ONE.shiftLeft(520).subtract(BigInteger.valueOf(1000)), BigInteger.ONE.shiftLeft(520)};
+		for (BigInteger start : starts) {
+			for (boolean odd : new boolean[] {false, true}) {
+				ECPoint p = pointFrom(start, odd);
+				byte[] b = p.ptToBytes();
+				assertEquals(67, b.length);
+				assertEquals(odd ? 1 : 0, b[66]);
+				assertEquals(p.getX(), new BigInteger(1, Arrays.copyOf(b, 66)));
+				assertEquals(p, ECPoint.bytesToPt(b));
+			}
+		}
+		//O = (0, 1) is all zero bytes and an odd y
+		byte[] o = new byte[67];
+		o[66] = 1;
+		assertArrayEquals(o, O.ptToBytes());
+		assertEquals(O, ECPoint.bytesToPt(o));
+	}
+
+	@Test
+	void encryptionWithShortZ() throws Exception {
+		//about one Z in four has fewer than 66 bytes of x
+		byte[] m = "m".getBytes();
+		ECPoint v = ECC.keyPair("pw".getBytes());
+		for (int i = 0; i < 32; i++) {
+			byte[] crp = ECC.ECEncrypt(v, m, "");
+			assertArrayEquals(m, ECC.ECDecrypt("pw".getBytes(), ECPoint.bytesToPt(Arrays.copyOf(crp, 67)),
+					Arrays.copyOfRange(crp, 67, crp.length - 64), Arrays.copyOfRange(crp, crp.length - 64, crp.length)));
+		}
+	}
+}
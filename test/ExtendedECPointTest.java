@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The extended-coordinate formulas against the affine reference, including
+ * the neutral element, the point of order 2 and a point added to itself.
+ */
+class ExtendedECPointTest {
+
+	private static List<ECPoint> points() {
+		List<ECPoint> p = new ArrayList<>();
+		p.add(E521Reference.O);
+		p.add(E521Reference.T2);
+		p.add(ECPoint.G);
+		p.add(E521Reference.negate(ECPoint.G));
+		//outside the subgroup of G
+		p.add(E521Reference.add(ECPoint.G, E521Reference.T2));
+		Random rnd = new Random(56);
+		for (int i = 0; i < 4; i++) {
+			p.add(E521Reference.randomPoint(rnd));
+		}
+		return p;
+	}
+
+	/**
+	 * p with Z != 1, so that the projective paths are exercised.
+	 */
+	private static ExtendedECPoint scaled(ECPoint p) {
+		ExtendedECPoint e = ExtendedECPoint.fromAffine(p);
+		FieldElement z = new FieldElement(123457);
+		e.X.mul(e.X, z);
+		e.Y.mul(e.Y, z);
+		e.T.mul(e.T, z);
+		e.Z.set(z);
+		return e;
+	}
+
+	@Test
+	void doubling() {
+		for (ECPoint a : points()) {
+			assertEquals(E521Reference.add(a, a), scaled(a).dbl().toAffine());
+		}
+	}
+
+	@Test
+	void addition() {
+		List<ECPoint> pts = points();
+		for (ECPoint a : pts) {
+			for (ECPoint b : pts) {
+				ECPoint sum = E521Reference.add(a, b);
+				assertEquals(sum, scaled(a).add(scaled(b)).toAffine());
+				assertEquals(sum, scaled(a).addAffine(ExtendedECPoint.fromAffine(b)).toAffine());
+				assertEquals(sum, scaled(a).addPrecomputed(new PrecomputedPoint(scaled(b))).toAffine());
+				assertEquals(sum, scaled(a).addPrecomputed(new PrecomputedPoint(ExtendedECPoint.fromAffine(b))).toAffine());
+				ECPoint diff = E521Reference.add(a, E521Reference.negate(b));
+				assertEquals(diff, scaled(a).subPrecomputed(new PrecomputedPoint(scaled(b))).toAffine());
+				assertEquals(diff, scaled(a).subPrecomputed(new PrecomputedPoint(ExtendedECPoint.fromAffine(b))).toAffine());
+			}
+			ExtendedECPoint self = scaled(a);
+			assertEquals(E521Reference.add(a, a), self.add(self).toAffine());
+		}
+	}
+
+	@Test
+	void normalization() {
+		List<ECPoint> pts = points();
+		ExtendedECPoint[] e = new ExtendedECPoint[pts.size()];
+		for (int i = 0; i < e.length; i++) {
+			e[i] = scaled(pts.get(i));
+		}
+		ExtendedECPoint.normalize(e, 1, e.length);
+		assertEquals(new FieldElement(123457), e[0].Z);
+		for (int i = 1; i < e.length; i++) {
+			assertEquals(new FieldElement(1), e[i].Z);
+			assertEquals(pts.get(i).getX(), e[i].X.toBigInteger());
+			assertEquals(pts.get(i).getY(), e[i].Y.toBigInteger());
+			assertEquals(new FieldElement().mul(e[i].X, e[i].Y), e[i].T);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * FieldElement against BigInteger mod p, on reduced values and on the partially
+ * reduced results that the point formulas feed back into mul and sqr.
+ */
+class FieldElementTest {
+
+	private static final BigInteger P = ECPoint.P;
+
+	/**
+	 * Values next to the limb and modulus boundaries, and random ones.
+	 */
+	private static List<BigInteger> values() {
+		List<BigInteger> v = new ArrayList<>();
+		for (long x : new long[] {0, 1, 2, (1L << 29) - 1, 1L << 29, (1L << 29) + 1, (1L << 58) - 1}) {
+			v.add(BigInteger.valueOf(x));
+		}
+		v.add(P.subtract(BigInteger.ONE));
+		v.add(P.subtract(BigInteger.TWO));
+		v.add(BigInteger.ONE.shiftLeft(520));
+		v.add(BigInteger.ONE.shiftLeft(493));
+		v.add(BigInteger.ONE.shiftLeft(493).subtract(BigInteger.ONE));
+		v.add(BigInteger.ONE.shiftLeft(261).add(BigInteger.ONE));
+		Random rnd = new Random(12);
+		for (int i = 0; i < 20; i++) {
+			v.add(new BigInteger(521, rnd).mod(P));
+		}
+		return v;
+	}
+
+	private static void assertValue(BigInteger expected, FieldElement actual) {
+		assertEquals(expected.mod(P), actual.toBigInteger());
+	}
+
+	@Test
+	void conversions() {
+		for (BigInteger x : values()) {
+			assertValue(x, new FieldElement(x));
+			assertValue(x.negate(), new FieldElement(x.negate()));
+			assertValue(x.add(P), new FieldElement(x.add(P)));
+			byte[] b = x.toByteArray();
+			assertValue(x, new FieldElement().set(b, 0, b.length));
+		}
+	}
+
+	@Test
+	void arithmetic() {
+		List<BigInteger> v = values();
+		for (BigInteger x : v) {
+			FieldElement a = new FieldElement(x);
+			assertValue(x.negate(), new FieldElement().neg(a));
+			assertValue(x.multiply(x), new FieldElement().sqr(a));
+			assertValue(x.multiply(BigInteger.valueOf(376014)), new FieldElement().mulSmall(a, 376014));
+			assertValue(x.multiply(BigInteger.valueOf((1 << 29) - 1)), new FieldElement().mulSmall(a, (1 << 29) - 1));
+			if (x.signum() != 0) {
+				assertValue(x.modInverse(P), new FieldElement().invert(a));
+			}
+			assertEquals(x.testBit(0), a.isOdd());
+			assertEquals(x.signum() == 0, a.isZero());
+			for (BigInteger y : v) {
+				FieldElement b = new FieldElement(y);
+				assertValue(x.add(y), new FieldElement().add(a, b));
+				assertValue(x.subtract(y), new FieldElement().sub(a, b));
+				assertValue(x.multiply(y), new FieldElement().mul(a, b));
+			}
+		}
+		assertValue(BigInteger.ZERO, new FieldElement().invert(new FieldElement()));
+	}
+
+	@Test
+	void nonCanonicalOperands() {
+		//p - 1 + 1 is p, and p - 1 + p - 1 is 2p - 2, both kept unreduced
+		FieldElement pm1 = new FieldElement(P.subtract(BigInteger.ONE));
+		FieldElement p = new FieldElement().add(pm1, new FieldElement(1));
+		FieldElement twoP = new FieldElement().add(pm1, pm1);
+		assertEquals(new FieldElement(), p);
+		assertValue(BigInteger.ZERO, p);
+		assertValue(BigInteger.valueOf(-2), twoP);
+		for (BigInteger x : values()) {
+			FieldElement a = new FieldElement(x);
+			assertValue(x.multiply(BigInteger.valueOf(-2)), new FieldElement().mul(a, twoP));
+			assertValue(BigInteger.ZERO, new FieldElement().mul(a, p));
+			assertValue(x, new FieldElement().add(a, p));
+			assertValue(x, new FieldElement().sub(a, p));
+			assertValue(x.negate(), new FieldElement().sub(p, a));
+			assertValue(BigInteger.valueOf(4), new FieldElement().sqr(twoP));
+		}
+	}
+
+	@Test
+	void unreducedChains() {
+		//long runs of add, sub, neg and mulSmall without any full reduction, fed into mul and sqr
+		Random rnd = new Random(34);
+		BigInteger[] ref = new BigInteger[4];
+		FieldElement[] fe = new FieldElement[4];
+		for (int i = 0; i < 4; i++) {
+			ref[i] = new BigInteger(521, rnd).mod(P);
+			fe[i] = new FieldElement(ref[i]);
+		}
+		for (int step = 0; step < 20000; step++) {
+			int d = rnd.nextInt(4), s = rnd.nextInt(4), t = rnd.nextInt(4);
+			switch (rnd.nextInt(7)) {
+			case 0:
+				ref[d] = ref[s].add(ref[t]).mod(P);
+				fe[d].add(fe[s], fe[t]);
+				break;
+			case 1:
+				ref[d] = ref[s].subtract(ref[t]).mod(P);
+				fe[d].sub(fe[s], fe[t]);
+				break;
+			case 2:
+				ref[d] = ref[s].negate().mod(P);
+				fe[d].neg(fe[s]);
+				break;
+			case 3:
+				int k = rnd.nextInt(1 << 29);
+				ref[d] = ref[s].multiply(BigInteger.valueOf(k)).mod(P);
+				fe[d].mulSmall(fe[s], k);
+				break;
+			case 4:
+				ref[d] = ref[s].multiply(ref[t]).mod(P);
+				fe[d].mul(fe[s], fe[t]);
+				break;
+			case 5:
+				ref[d] = ref[s].multiply(ref[s]).mod(P);
+				fe[d].sqr(fe[s]);
+				break;
+			default:
+				FieldElement.cswap(fe[d], fe[s], step & 1);
+				if ((step & 1) != 0) {
+					BigInteger tmp = ref[d];
+					ref[d] = ref[s];
+					ref[s] = tmp;
+				}
+				break;
+			}
+			assertValue(ref[d], fe[d]);
+		}
+	}
+}
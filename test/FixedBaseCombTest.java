@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The comb against plain double-and-add, for G through multByScalar and for
+ * combs built over other bases, including bases outside the subgroup of G.
+ */
+class FixedBaseCombTest {
+
+	private static final BigInteger TWO521 = BigInteger.ONE.shiftLeft(521);
+
+	@Test
+	void multiplesOfG() {
+		//multByScalar reduces mod r before the comb, so any scalar is valid for G
+		for (BigInteger k : E521Reference.scalars(78)) {
+			assertEquals(E521Reference.multiply(k, ECPoint.G), ECPoint.multByScalar(k, ECPoint.G), k.toString(16));
+		}
+	}
+
+	@Test
+	void otherBases() {
+		Random rnd = new Random(90);
+		ECPoint[] bases = {
+				E521Reference.randomPoint(rnd),
+				E521Reference.T2,
+				E521Reference.add(ECPoint.G, E521Reference.T2),
+				E521Reference.O
+		};
+		for (ECPoint base : bases) {
+			FixedBaseComb comb = new FixedBaseComb(base, 521);
+			for (BigInteger k : E521Reference.scalars(12)) {
+				//the comb takes scalars in [0, 2^521) as they are
+				if (k.signum() >= 0 && k.compareTo(TWO521) < 0) {
+					assertEquals(E521Reference.multiply(k, base), comb.multiply(k), k.toString(16));
+				}
+			}
+		}
+	}
+
+	@Test
+	void shortCombs() {
+		Random rnd = new Random(34);
+		ECPoint base = E521Reference.randomPoint(rnd);
+		for (int bits : new int[] {1, 7, 8, 9, 64, 255}) {
+			FixedBaseComb comb = new FixedBaseComb(base, bits);
+			BigInteger max = BigInteger.ONE.shiftLeft(bits).subtract(BigInteger.ONE);
+			for (BigInteger k : new BigInteger[] {BigInteger.ZERO, BigInteger.ONE, max, new BigInteger(bits, rnd)}) {
+				assertEquals(E521Reference.multiply(k, base), comb.multiply(k), bits + ": " + k.toString(16));
+			}
+		}
+	}
+
+	@Test
+	void jointCombs() {
+		Random rnd = new Random(56);
+		ECPoint a = E521Reference.randomPoint(rnd);
+		ECPoint b = E521Reference.add(E521Reference.randomPoint(rnd), E521Reference.T2);
+		FixedBaseComb ca = new FixedBaseComb(a, 521);
+		FixedBaseComb cb = new FixedBaseComb(b, 521);
+		BigInteger[][] pairs = {
+				{BigInteger.ZERO, BigInteger.ZERO},
+				{BigInteger.ONE, BigInteger.ZERO},
+				{BigInteger.ZERO, BigInteger.ONE},
+				{E521Reference.R, E521Reference.R.subtract(BigInteger.ONE)},
+				{TWO521.subtract(BigInteger.ONE), E521Reference.R.add(BigInteger.ONE)},
+				{new BigInteger(521, rnd), new BigInteger(521, rnd)}
+		};
+		for (BigInteger[] k : pairs) {
+			ECPoint expected = E521Reference.add(E521Reference.multiply(k[0], a), E521Reference.multiply(k[1], b));
+			assertEquals(expected, FixedBaseComb.multiply(ca, k[0], cb, k[1]));
+			//the same base on both sides doubles up into one point
+			assertEquals(E521Reference.multiply(k[0].add(k[1]), a), FixedBaseComb.multiply(ca, k[0], ca, k[1]));
+		}
+	}
+}
@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * a * P + b * Q through multByScalars, one at a time and batched, against
+ * the sum of two double-and-add products.
+ */
+class JointMultiplicationTest {
+
+	/**
+	 * Reference products, the same scalar and point come up in several pairs.
+	 */
+	private static final Map<List<BigInteger>, ECPoint> PRODUCTS = new HashMap<>();
+
+	private static ECPoint product(BigInteger k, ECPoint p) {
+		return PRODUCTS.computeIfAbsent(List.of(k, p.getX(), p.getY()), key -> E521Reference.multiply(k, p));
+	}
+
+	private static ECPoint expected(BigInteger a, ECPoint p, BigInteger b, ECPoint q) {
+		return E521Reference.add(product(a, p), product(b, q));
+	}
+
+	@Test
+	void pairs() {
+		Random rnd = new Random(78);
+		ECPoint p = E521Reference.randomPoint(rnd);
+		ECPoint[][] bases = {
+				{ECPoint.G, p},
+				{p, E521Reference.add(E521Reference.randomPoint(rnd), E521Reference.T2)},
+				{p, E521Reference.T2},
+				{p, p},
+				{p, E521Reference.negate(p)},
+				{ECPoint.G, E521Reference.O}
+		};
+		BigInteger[] a = E521Reference.scalars(90);
+		BigInteger[] b = E521Reference.scalars(12);
+		for (ECPoint[] pq : bases) {
+			for (int i = 0; i < a.length; i++) {
+				//pair every scalar with one from the other end, so edge cases meet random ones
+				BigInteger ka = a[i], kb = b[b.length - 1 - i];
+				assertEquals(expected(ka, pq[0], kb, pq[1]), ECPoint.multByScalars(ka, pq[0], kb, pq[1]),
+						ka.toString(16) + ", " + kb.toString(16));
+			}
+			//equal scalars on P and -P cancel
+			if (pq[1].equals(E521Reference.negate(pq[0]))) {
+				assertEquals(E521Reference.O, ECPoint.multByScalars(a[8], pq[0], a[8], pq[1]));
+			}
+		}
+	}
+
+	@Test
+	void batch() {
+		Random rnd = new Random(34);
+		BigInteger[] a = E521Reference.scalars(56);
+		BigInteger[] b = E521Reference.scalars(78);
+		ECPoint[] p = new ECPoint[a.length];
+		ECPoint[] q = new ECPoint[a.length];
+		ECPoint[] expected = new ECPoint[a.length];
+		ECPoint r = E521Reference.randomPoint(rnd);
+		for (int i = 0; i < a.length; i++) {
+			p[i] = i % 3 == 0 ? ECPoint.G : r;
+			q[i] = i % 4 == 0 ? E521Reference.T2 : E521Reference.add(r, ECPoint.G);
+			expected[i] = expected(a[i], p[i], b[i], q[i]);
+		}
+		//the all-zero entries give O, which must survive the shared inversion
+		assertArrayEquals(expected, ECPoint.multByScalars(a, p, b, q));
+		assertArrayEquals(new ECPoint[0], ECPoint.multByScalars(new BigInteger[0], new ECPoint[0], new BigInteger[0], new ECPoint[0]));
+	}
+
+	@Test
+	void batchRejectsMismatchedLengths() {
+		BigInteger[] one = {BigInteger.ONE};
+		ECPoint[] g = {ECPoint.G};
+		assertThrows(IllegalArgumentException.class, () -> ECPoint.multByScalars(one, g, new BigInteger[0], g));
+		assertThrows(IllegalArgumentException.class, () -> ECPoint.multByScalars(one, new ECPoint[2], one, g));
+	}
+}
@@ -0,0 +1,150 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TurboSHAKE256 and KT256 against the RFC 9861 sec. 5 test vectors.
+ */
+class KangarooTwelveTest {
+
+	/**
+	 * ptn(n), the repeated pattern 00 01 ... FA of the test vectors.
+	 */
+	private static byte[] ptn(int n) {
+		byte[] x = new byte[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = (byte) (i % 251);
+		}
+		return x;
+	}
+
+	private static byte[] ff(int n) {
+		byte[] x = new byte[n];
+		Arrays.fill(x, (byte) 0xFF);
+		return x;
+	}
+
+	private static String turbo(byte[] M, int D, int L) {
+		return SHA3.bytesToHex(SHA3.TurboSHAKE256(M, (byte) D, L));
+	}
+
+	private static String kt(byte[] M, byte[] C, int L) {
+		return SHA3.bytesToHex(KangarooTwelve.KT256(M, C, L));
+	}
+
+	private static String tail(byte[] h, int n) {
+		return SHA3.bytesToHex(Arrays.copyOfRange(h, h.length - n, h.length));
+	}
+
+	@Test
+	void turboSHAKE256Empty() {
+		assertEquals("367A329DAFEA871C7802EC67F905AE13C57695DC2C6663C61035F59A18F8E7DB11EDC0E12E91EA60EB6B32DF06DD7F002FBAFABB6E13EC1CC20D995547600DB0",
+				turbo(new byte[0], 0x1F, 512));
+		assertEquals("ABEFA11630C661269249742685EC082F207265DCCF2F43534E9C61BA0C9D1D75",
+				tail(SHA3.TurboSHAKE256(new byte[0], (byte) 0x1F, 10032 * 8), 32));
+	}
+
+	@Test
+	void turboSHAKE256Pattern() {
+		assertEquals("3E1712F928F8EAF1054632B2AA0A246ED8B0C378728F60BC970410155C28820E90CC90D8A3006AA2372C5C5EA176B0682BF22BAE7467AC94F74D43D39B0482E2",
+				turbo(ptn(1), 0x1F, 512));
+		assertEquals("B3BAB0300E6A191FBE6137939835923578794EA54843F5011090FA2F3780A9E5CB22C59D78B40A0FBFF9E672C0FBE0970BD2C845091C6044D687054DA5D8E9C7",
+				turbo(ptn(17), 0x1F, 512));
+		assertEquals("66B810DB8E90780424C0847372FDC95710882FDE31C6DF75BEB9D4CD9305CFCAE35E7B83E8B7E6EB4B78605880116316FE2C078A09B94AD7B8213C0A738B65C0",
+				turbo(ptn(17 * 17), 0x1F, 512));
+		assertEquals("C74EBC919A5B3B0DD1228185BA02D29EF442D69D3D4276A93EFE0BF9A16A7DC0CD4EABADAB8CD7A5EDD96695F5D360ABE09E2C6511A3EC397DA3B76B9E1674FB",
+				turbo(ptn(17 * 17 * 17), 0x1F, 512));
+		assertEquals("02CC3A8897E6F4F6CCB6FD46631B1F5207B66C6DE9C7B55B2D1A23134A170AFDAC234EABA9A77CFF88C1F020B73724618C5687B362C430B248CD38647F848A1D",
+				turbo(ptn(17 * 17 * 17 * 17), 0x1F, 512));
+	}
+
+	@Test
+	void turboSHAKE256DomainBytes() {
+		assertEquals("D21C6FBBF587FA2282F29AEA620175FB0257413AF78A0B1B2A87419CE031D933AE7A4D383327A8A17641A34F8A1D1003AD7DA6B72DBA84BB62FEF28F62F12424",
+				turbo(ff(3), 0x01, 512));
+		assertEquals("738D7B4E37D18B7F22AD1B5313E357E3DD7D07056A26A303C433FA3533455280F4F5A7D4F700EFB437FE6D281405E07BE32A0A972E22E63ADC1B090DAEFE004B",
+				turbo(ff(1), 0x06, 512));
+		assertEquals("18B3B5B7061C2E67C1753A00E6AD7ED7BA1C906CF93EFB7092EAF27FBEEBB755AE6E292493C110E48D260028492B8E09B5500612B8F2578985DED5357D00EC67",
+				turbo(ff(3), 0x07, 512));
+	}
+
+	@Test
+	void kt256Empty() {
+		assertEquals("B23D2E9CEA9F4904E02BEC06817FC10CE38CE8E93EF4C89E6537076AF8646404E3E8B68107B8833A5D30490AA33482353FD4ADC7148ECB782855003AAEBDE4A9",
+				kt(new byte[0], new byte[0], 512));
+		assertEquals("AD4A1D718CF950506709A4C33396139B4449041FC79A05D68DA35F1E453522E056C64FE94958E7085F2964888259B9932752F3CCD855288EFEE5FCBB8B563069",
+				tail(KangarooTwelve.KT256(new byte[0], new byte[0], 10064 * 8), 64));
+	}
+
+	@Test
+	void kt256Pattern() {
+		assertEquals("0D005A194085360217128CF17F91E1F71314EFA5564539D444912E3437EFA17F82DB6F6FFE76E781EAA068BCE01F2BBF81EACB983D7230F2FB02834A21B1DDD0",
+				kt(ptn(1), new byte[0], 512));
+		assertEquals("1BA3C02B1FC514474F06C8979978A9056C8483F4A1B63D0DCCEFE3A28A2F323E1CDCCA40EBF006AC76EF0397152346837B1277D3E7FAA9C9653B19075098527B",
+				kt(ptn(17), new byte[0], 512));
+		assertEquals("DE8CCBC63E0F133EBB4416814D4C66F691BBF8B6A61EC0A7700F836B086CB029D54F12AC7159472C72DB118C35B4E6AA213C6562CAAA9DCC518959E69B10F3BA",
+				kt(ptn(17 * 17), new byte[0], 512));
+		assertEquals("647EFB49FE9D717500171B41E7F11BD491544443209997CE1C2530D15EB1FFBB598935EF954528FFC152B1E4D731EE2683680674365CD191D562BAE753B84AA5",
+				kt(ptn(17 * 17 * 17), new byte[0], 512));
+	}
+
+	@Test
+	void kt256SeveralChunks() {
+		//83521 bytes, 11 chunks
+		assertEquals("B06275D284CD1CF205BCBE57DCCD3EC1FF6686E3ED15776383E1F2FA3C6AC8F08BF8A162829DB1A44B2A43FF83DD89C3CF1CEB61EDE659766D5CCF817A62BA8D",
+				kt(ptn(17 * 17 * 17 * 17), new byte[0], 512));
+		//1419857 bytes, 174 chunks
+		assertEquals("9473831D76A4C7BF77ACE45B59F1458B1673D64BCD877A7C66B2664AA6DD149E60EAB71B5C2BAB858C074DED81DDCE2B4022B5215935C0D4D19BF511AEEB0772",
+				kt(ptn(17 * 17 * 17 * 17 * 17), new byte[0], 512));
+	}
+
+	@Test
+	void kt256Customization() {
+		assertEquals("9280F5CC39B54A5A594EC63DE0BB99371E4609D44BF845C2F5B8C316D72B159811F748F23E3FABBE5C3226EC96C62186DF2D33E9DF74C5069CEECBB4DD10EFF6",
+				kt(new byte[0], ptn(1), 512));
+		assertEquals("47EF96DD616F200937AA7847E34EC2FEAE8087E3761DC0F8C1A154F51DC9CCF845D7ADBCE57FF64B639722C6A1672E3BF5372D87E00AFF89BE97240756998853",
+				kt(ff(1), ptn(41), 512));
+		assertEquals("3B48667A5051C5966C53C5D42B95DE451E05584E7806E2FB765EDA959074172CB438A9E91DDE337C98E9C41BED94C4E0AEF431D0B64EF2324F7932CAA6F54969",
+				kt(ff(3), ptn(41 * 41), 512));
+		assertEquals("E0911CC00025E1540831E266D94ADD9B98712142B80D2629E643AAC4EFAF5A3A30A88CBF4AC2A91A2432743054FBCC9897670E86BA8CEC2FC2ACE9C966369724",
+				kt(ff(7), ptn(41 * 41 * 41), 512));
+	}
+
+	@Test
+	void kt256ChunkBoundary() {
+		//|S| = 8191 + 8189 + 2 and 8192 + 8190 + 2, the boundary falls in C or its encoding
+		assertEquals("2CDC6FC619112556212F83A99A57C9C5D86B8DBA2BA0E73FAB813E932DB8E4E65DBE0A241196D34AE859E8172E377DECE204AA3C74BEFEB004990B45D97EB1C1",
+				kt(ptn(8191), ptn(8189), 512));
+		assertEquals("F4B5908B929FFE01E0F79EC2F21243D41A396B2E7303A6AF1D6399CD6C7A0A2DD7C4F607E8277F9C9B1CB4AB9DDC59D4B92D1FC7558441F1832C3279A4241B8B",
+				kt(ptn(8192), ptn(8190), 512));
+	}
+
+	@Test
+	void fileMatchesByteArray() throws IOException {
+		byte[] M = ptn(17 * 17 * 17 * 17 * 17);
+		byte[] C = ptn(41);
+		Path f = Files.createTempFile("kt256", ".bin");
+		try {
+			Files.write(f, M);
+			try (FileChannel ch = FileChannel.open(f, StandardOpenOption.READ)) {
+				assertEquals(kt(M, C, 512), SHA3.bytesToHex(KangarooTwelve.KT256(ch, C, 512)));
+			}
+		} finally {
+			Files.delete(f);
+		}
+	}
+
+	@Test
+	void rejectsPartialBytes() {
+		assertThrows(IllegalArgumentException.class, () -> KangarooTwelve.KT256(new byte[0], new byte[0], 257));
+		assertThrows(IllegalArgumentException.class, () -> KangarooTwelve.KT256(new byte[0], new byte[0], -8));
+	}
+}
@@ -0,0 +1,51 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pins KmacKey to the legacy KMACXOF256 it caches, including that the key
+ * bytes do not reach the output. If encode_string is ever fixed, these tests
+ * fail on purpose: hash, mac and SHA3Batch outputs change with it.
+ */
+class KmacKeyTest {
+
+	private static final byte[] M = "message".getBytes();
+
+	@Test
+	void matchesLegacyKmac() {
+		byte[] k = "key".getBytes();
+		assertArrayEquals(SHA3.KMACXOF256(k, M, 512, "S".getBytes()), new KmacKey(k, "S".getBytes()).KMACXOF256(M, 512));
+		assertArrayEquals(SHA3.KMACXOF256(k, M, 512, SHA3.Domain.T), new KmacKey(k, SHA3.Domain.T).KMACXOF256(M, 512));
+		assertArrayEquals(SHA3.KMACXOF256(k, M, 512, SHA3.Domain.T), new KmacKey(k, SHA3.Domain.T).KMACXOF256(ByteBuffer.wrap(M), 512));
+		assertArrayEquals(SHA3.mac(k, M), SHA3.mac(SHA3.macKey(k), M));
+	}
+
+	@Test
+	void ignoresKeyBytes() {
+		//keys of the same length give the same tag
+		assertArrayEquals(SHA3.mac("key".getBytes(), M), SHA3.mac(SHA3.macKey("KEY".getBytes()), M));
+		assertArrayEquals(new KmacKey(new byte[64], SHA3.Domain.T).KMACXOF256(M, 512),
+				new KmacKey(filled(64), SHA3.Domain.T).KMACXOF256(M, 512));
+		//the standard KMAC does depend on them
+		assertFalse(Arrays.equals(standard(new byte[64]), standard(filled(64))));
+	}
+
+	private static byte[] filled(int len) {
+		byte[] k = new byte[len];
+		Arrays.fill(k, (byte) 0xA5);
+		return k;
+	}
+
+	private static byte[] standard(byte[] k) {
+		SHA3 sha3 = new SHA3();
+		sha3.initStandardKMACXOF256(k, "T".getBytes());
+		sha3.update(M, 0, M.length);
+		byte[] out = new byte[64];
+		sha3.squeeze(out, 0, out.length);
+		return out;
+	}
+}
@@ -0,0 +1,57 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The x-only ladder against x of the double-and-add product, including every
+ * case that takes the fallback: x = 0 on the way in or out, and kP + P = O.
+ */
+class MontgomeryLadderTest {
+
+	/**
+	 * (1, 0), a point of order 4, twice it is (0, -1).
+	 */
+	private static final ECPoint T4 = new ECPoint(BigInteger.ONE, BigInteger.ZERO);
+
+	private static void check(BigInteger k, ECPoint p) {
+		BigInteger expected = E521Reference.multiply(k, p).getX();
+		assertEquals(expected, MontgomeryLadder.multiplyX(k, p), k.toString(16));
+		assertEquals(expected, ECPoint.multByScalarX(k, p), k.toString(16));
+	}
+
+	@Test
+	void subgroupPoints() {
+		//r - 1 makes kP + P = O, r and 0 make kP = O
+		ECPoint[] points = {ECPoint.G, E521Reference.randomPoint(new Random(90))};
+		for (ECPoint p : points) {
+			for (BigInteger k : E521Reference.scalars(12)) {
+				check(k, p);
+			}
+		}
+	}
+
+	@Test
+	void pointsOutsideSubgroup() {
+		ECPoint p = E521Reference.add(E521Reference.randomPoint(new Random(34)), T4);
+		for (BigInteger k : E521Reference.scalars(56)) {
+			check(k, p);
+		}
+	}
+
+	@Test
+	void smallOrderPoints() {
+		//(0, 1) and (0, -1) have x = 0, multiples of (1, 0) run through both
+		ECPoint[] points = {E521Reference.O, E521Reference.T2, T4, E521Reference.negate(T4)};
+		for (ECPoint p : points) {
+			for (long k = -9; k <= 9; k++) {
+				check(BigInteger.valueOf(k), p);
+			}
+			for (BigInteger k : E521Reference.scalars(78)) {
+				check(k, p);
+			}
+		}
+	}
+}
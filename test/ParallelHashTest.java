@@ -0,0 +1,126 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ParallelHash256 and ParallelHashXOF256 against the NIST SP 800-185 sample values.
+ */
+class ParallelHashTest {
+
+	/**
+	 * 00..07 10..17 20..27, the input of samples #4 and #5.
+	 */
+	private static final byte[] X24 = blocks(3);
+
+	/**
+	 * 00..07 10..17 .. 50..57, the input of sample #6.
+	 */
+	private static final byte[] X48 = blocks(6);
+
+	private static final byte[] S = "Parallel Data".getBytes();
+
+	private static byte[] blocks(int n) {
+		byte[] x = new byte[8 * n];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = (byte) ((i / 8) << 4 | (i % 8));
+		}
+		return x;
+	}
+
+	@Test
+	void parallelHash256Sample4() {
+		assertEquals("BC1EF124DA34495E948EAD207DD9842235DA432D2BBC54B4C110E64C451105531B7F2A3E0CE055C02805E7C2DE1FB746AF97A1DD01F43B824E31B87612410429",
+				SHA3.bytesToHex(ParallelHash.ParallelHash256(X24, 8, 512, "".getBytes())));
+	}
+
+	@Test
+	void parallelHash256Sample5() {
+		assertEquals("CDF15289B54F6212B4BC270528B49526006DD9B54E2B6ADD1EF6900DDA3963BB33A72491F236969CA8AFAEA29C682D47A393C065B38E29FAE651A2091C833110",
+				SHA3.bytesToHex(ParallelHash.ParallelHash256(X24, 8, 512, S)));
+	}
+
+	@Test
+	void parallelHash256Sample6() {
+		assertEquals("FEEA4E5C7B68EA5BBFD8B0310EBD01B62BC0BF06A0237751DEAAB5544251401FB3621C26E9C9A23D5F783D61C161F9FEC2D837FC7E0B0A5B1BA6558E8531A68B",
+				SHA3.bytesToHex(ParallelHash.ParallelHash256(X48, 12, 512, S)));
+	}
+
+	@Test
+	void parallelHashXOF256Sample4() {
+		assertEquals("C10A052722614684144D28474850B410757E3CBA87651BA167A5CBDDFF7F466675FBF84BCAE7378AC444BE681D729499AFCA667FB879348BFDDA427863C82F1C",
+				SHA3.bytesToHex(ParallelHash.ParallelHashXOF256(X24, 8, 512, "".getBytes())));
+	}
+
+	@Test
+	void parallelHashXOF256Sample5() {
+		assertEquals("538E105F1A22F44ED2F5CC1674FBD40BE803D9C99BF5F8D90A2C8193F3FE6EA768E5C1A20987E2C9C65FEBED03887A51D35624ED12377594B5585541DC377EFC",
+				SHA3.bytesToHex(ParallelHash.ParallelHashXOF256(X24, 8, 512, S)));
+	}
+
+	@Test
+	void parallelHashXOF256Sample6() {
+		assertEquals("EC6CB77A08B968D775602782E47816FC9D4D038A8A97420E9876CB5508E7ABCBA51315EC9B927719364A2C4A9D05E2085CA4D0BF12CF8200785DB2EA694FA7CA",
+				SHA3.bytesToHex(ParallelHash.ParallelHashXOF256(X48, 12, 512, S)));
+	}
+
+	/**
+	 * ParallelHash computed block by block on one thread, straight from the definition.
+	 */
+	private static byte[] sequential(byte[] X, int B, int L, byte[] S, boolean xof) {
+		SHA3 z = new SHA3();
+		z.initStandardcSHAKE256("ParallelHash".getBytes(), S);
+		byte[] encB = SHA3.left_encode(B);
+		z.update(encB, 0, encB.length);
+		int n = (X.length + B - 1) / B;
+		SHA3 leaf = new SHA3();
+		byte[] h = new byte[64];
+		for (int i = 0; i < n; i++) {
+			leaf.initStandardcSHAKE256(null, null);
+			leaf.update(X, i * B, Math.min(B, X.length - i * B));
+			leaf.squeeze(h, 0, h.length);
+			z.update(h, 0, h.length);
+		}
+		byte[] encN = SHA3.right_encode(n);
+		byte[] encL = SHA3.right_encode(xof ? 0 : L);
+		z.update(encN, 0, encN.length);
+		z.update(encL, 0, encL.length);
+		byte[] out = new byte[L >>> 3];
+		z.squeeze(out, 0, out.length);
+		return out;
+	}
+
+	@Test
+	void smallBlocksOverSeveralWindows() {
+		//more than one window of block hashes for every B below
+		byte[] X = new byte[600_001];
+		for (int i = 0; i < X.length; i++) {
+			X[i] = (byte) (i * 131 + (i >>> 9));
+		}
+		for (int B : new int[] {1, 2, 7}) {
+			assertEquals(SHA3.bytesToHex(sequential(X, B, 256, S, false)),
+					SHA3.bytesToHex(ParallelHash.ParallelHash256(X, B, 256, S)), "B = " + B);
+			assertEquals(SHA3.bytesToHex(sequential(X, B, 256, S, true)),
+					SHA3.bytesToHex(ParallelHash.ParallelHashXOF256(X, B, 256, S)), "B = " + B);
+		}
+	}
+
+	@Test
+	void fileMatchesByteArray() throws IOException {
+		Path f = Files.createTempFile("parallelhash", ".bin");
+		try {
+			Files.write(f, X48);
+			try (FileChannel ch = FileChannel.open(f, StandardOpenOption.READ)) {
+				assertEquals(SHA3.bytesToHex(ParallelHash.ParallelHash256(X48, 12, 512, S)),
+						SHA3.bytesToHex(ParallelHash.ParallelHash256(ch, 12, 512, S)));
+			}
+		} finally {
+			Files.delete(f);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Table files written by PointTables.main are accepted, the build ships them as
+ * the resource, and files with any entry replaced by another point on the curve
+ * are rejected even with a valid CRC.
+ */
+class PointTablesTest {
+
+	private static final int COORD = 66;
+	private static final int POINT = 2 * COORD;
+
+	/**
+	 * Offset of the first comb entry: magic, version, G, spacing, n.
+	 */
+	private static final int COMB = 8 + POINT + 8;
+
+	/**
+	 * Offset of the first odd multiple.
+	 */
+	private static final int ODD = COMB + FixedBaseComb.SIZE * POINT + 4;
+
+	private Path file;
+	private byte[] tables;
+
+	@BeforeEach
+	void write() throws IOException {
+		file = Files.createTempFile("e521-tables", ".bin");
+		PointTables.main(new String[] {file.toString()});
+		tables = Files.readAllBytes(file);
+	}
+
+	@AfterEach
+	void delete() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	void acceptsWrittenTables() {
+		assertEquals(PointTables.DIGEST, PointTables.digest(ByteBuffer.wrap(tables)));
+		assertNotNull(PointTables.read(file));
+	}
+
+	@Test
+	void resourceIsCanonical() throws IOException {
+		try (InputStream in = PointTables.class.getResourceAsStream(PointTables.RESOURCE)) {
+			assertNotNull(in, "the build writes " + PointTables.RESOURCE);
+			assertArrayEquals(tables, in.readAllBytes());
+		}
+	}
+
+	@Test
+	void rejectsNeutralCombEntry() throws IOException {
+		//entry 2 = (0, 1), on the curve but not 2^spacing * G
+		byte[] t = tables.clone();
+		ByteBuffer.wrap(t, COMB + POINT, POINT).put(new byte[POINT]);
+		t[COMB + POINT + POINT - 1] = 1;
+		assertNull(PointTables.read(plant(t)));
+	}
+
+	@Test
+	void rejectsSwappedCombEntries() throws IOException {
+		byte[] t = tables.clone();
+		System.arraycopy(tables, COMB + 100 * POINT, t, COMB + 200 * POINT, POINT);
+		System.arraycopy(tables, COMB + 200 * POINT, t, COMB + 100 * POINT, POINT);
+		assertNull(PointTables.read(plant(t)));
+	}
+
+	@Test
+	void rejectsWrongOddMultiple() throws IOException {
+		byte[] t = tables.clone();
+		//last odd multiple replaced by the first comb entry, G
+		System.arraycopy(tables, COMB, t, t.length - 4 - POINT, POINT);
+		assertNull(PointTables.read(plant(t)));
+	}
+
+	@Test
+	void rejectsBadChecksum() throws IOException {
+		byte[] t = tables.clone();
+		t[ODD] ^= 1;
+		Files.write(file, t);
+		assertNull(PointTables.read(file));
+	}
+
+	/**
+	 * Writes t with a recomputed CRC, as an attacker would.
+	 */
+	private Path plant(byte[] t) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(t, 0, t.length - 4);
+		ByteBuffer.wrap(t).putInt(t.length - 4, (int) crc.getValue());
+		return Files.write(file, t);
+	}
+}
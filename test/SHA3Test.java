@@ -0,0 +1,179 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * The SP 800-185 conforming cSHAKE256 and KMACXOF256 against the NIST sample values,
+ * and squeezeXor against squeeze followed by a separate XOR.
+ */
+class SHA3Test {
+
+	/**
+	 * 40..5F, the key of the KMAC samples.
+	 */
+	private static final byte[] K = range(0x40, 32);
+
+	private static byte[] range(int from, int len) {
+		byte[] x = new byte[len];
+		for (int i = 0; i < len; i++) {
+			x[i] = (byte) (from + i);
+		}
+		return x;
+	}
+
+	private static String kmacxof(byte[] key, byte[] X, byte[] S) {
+		SHA3 sha3 = new SHA3();
+		sha3.initStandardKMACXOF256(key, S);
+		sha3.update(X, 0, X.length);
+		byte[] out = new byte[64];
+		sha3.squeeze(out, 0, out.length);
+		return SHA3.bytesToHex(out);
+	}
+
+	@Test
+	void cSHAKE256Sample3() {
+		SHA3 sha3 = new SHA3();
+		sha3.initStandardcSHAKE256("".getBytes(), "Email Signature".getBytes());
+		sha3.update(range(0, 4), 0, 4);
+		byte[] out = new byte[64];
+		sha3.squeeze(out, 0, out.length);
+		assertEquals("D008828E2B80AC9D2218FFEE1D070C48B8E4C87BFF32C9699D5B6896EEE0EDD164020E2BE0560858D9C00C037E34A96937C561A74C412BB4C746469527281C8C",
+				SHA3.bytesToHex(out));
+	}
+
+	@Test
+	void kmacXOF256Sample4() {
+		assertEquals("1755133F1534752AAD0748F2C706FB5C784512CAB835CD15676B16C0C6647FA96FAA7AF634A0BF8FF6DF39374FA00FAD9A39E322A7C92065A64EB1FB0801EB2B",
+				kmacxof(K, range(0, 4), "My Tagged Application".getBytes()));
+	}
+
+	@Test
+	void kmacXOF256Sample6() {
+		assertEquals("D5BE731C954ED7732846BB59DBE3A8E30F83E77A4BFF4459F2F1C2B4ECEBB8CE67BA01C62E8AB8578D2D499BD1BB276768781190020A306A97DE281DCC30305D",
+				kmacxof(K, range(0, 200), "My Tagged Application".getBytes()));
+	}
+
+	@Test
+	void kmacDependsOnKeyBytes() {
+		byte[] other = K.clone();
+		other[0] ^= 1;
+		assertNotEquals(kmacxof(K, new byte[0], null), kmacxof(other, new byte[0], null));
+	}
+
+	/**
+	 * Output length for the squeezeXor checks, several 136-byte blocks.
+	 */
+	private static final int N = 2000;
+
+	/**
+	 * A keystream sponge as the encryption uses it, with some input absorbed.
+	 */
+	private static SHA3 keystream() {
+		SHA3 sha3 = new SHA3();
+		sha3.initKMACXOF256(K, SHA3.Domain.SKE);
+		sha3.update(range(0, 100), 0, 100);
+		return sha3;
+	}
+
+	private static byte[] squeezed() {
+		byte[] out = new byte[N];
+		keystream().squeeze(out, 0, N);
+		return out;
+	}
+
+	/**
+	 * Piece sizes around a lane and a block, and random ones.
+	 */
+	private static int[][] splits() {
+		Random rnd = new Random(17);
+		int[] random = new int[64];
+		for (int i = 0; i < random.length; i++) {
+			random[i] = rnd.nextInt(300);
+		}
+		return new int[][] {{N}, {1}, {3}, {7}, {8}, {9}, {135}, {136}, {137}, {0, 5, 0, 131, 1}, random};
+	}
+
+	private static byte[] xor(byte[] a, byte[] b) {
+		byte[] x = new byte[a.length];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = (byte) (a[i] ^ b[i]);
+		}
+		return x;
+	}
+
+	@Test
+	void squeezeXorMatchesSqueeze() {
+		byte[] m = new byte[N];
+		new Random(18).nextBytes(m);
+		byte[] expected = xor(m, squeezed());
+		for (int[] split : splits()) {
+			//separate arrays at unaligned offsets, and in place
+			SHA3 apart = keystream();
+			SHA3 inPlace = keystream();
+			byte[] in = new byte[N + 3];
+			byte[] out = new byte[N + 5];
+			byte[] same = m.clone();
+			System.arraycopy(m, 0, in, 3, N);
+			for (int off = 0, i = 0; off < N; i++) {
+				int len = Math.min(split[i % split.length], N - off);
+				apart.squeezeXor(in, 3 + off, out, 5 + off, len);
+				inPlace.squeezeXor(same, off, same, off, len);
+				off += len;
+			}
+			assertArrayEquals(expected, Arrays.copyOfRange(out, 5, N + 5));
+			assertArrayEquals(expected, same);
+		}
+	}
+
+	@Test
+	void squeezeXorOnBuffers() {
+		byte[] m = new byte[N];
+		new Random(19).nextBytes(m);
+		byte[] expected = xor(m, squeezed());
+		for (int[] split : splits()) {
+			SHA3 heap = keystream();
+			SHA3 direct = keystream();
+			//a heap slice has a non-zero array offset
+			ByteBuffer h = ByteBuffer.allocate(N + 7).position(7).slice().put(m).flip();
+			ByteBuffer d = ByteBuffer.allocateDirect(N).put(m).flip();
+			for (int off = 0, i = 0; off < N; i++) {
+				int len = Math.min(split[i % split.length], N - off);
+				heap.squeezeXor(h.limit(off + len));
+				direct.squeezeXor(d.limit(off + len));
+				assertEquals(off + len, d.position());
+				off += len;
+			}
+			byte[] hb = new byte[N];
+			byte[] db = new byte[N];
+			h.flip().get(hb);
+			d.flip().get(db);
+			assertArrayEquals(expected, hb);
+			assertArrayEquals(expected, db);
+		}
+	}
+
+	@Test
+	void squeezeXorContinuesSqueeze() {
+		//alternating squeeze and squeezeXor over zeros reads one keystream
+		byte[] ks = new byte[N];
+		SHA3 sha3 = keystream();
+		byte[] zeros = new byte[N];
+		int[] split = splits()[10];
+		for (int off = 0, i = 0; off < N; i++) {
+			int len = Math.min(split[i % split.length], N - off);
+			if ((i & 1) == 0) {
+				sha3.squeeze(ks, off, len);
+			} else {
+				sha3.squeezeXor(zeros, off, ks, off, len);
+			}
+			off += len;
+		}
+		assertArrayEquals(squeezed(), ks);
+	}
+}
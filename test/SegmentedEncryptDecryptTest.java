@@ -0,0 +1,52 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Round trips of the segmented mode, and rejection of a wrong passphrase or a modified cryptogram.
+ */
+class SegmentedEncryptDecryptTest {
+
+	private static final byte[] PASS = "pass".getBytes();
+
+	private static byte[] message(int len) {
+		byte[] m = new byte[len];
+		for (int i = 0; i < len; i++) {
+			m[i] = (byte) (i * 31 + 7);
+		}
+		return m;
+	}
+
+	@Test
+	void roundTrip() {
+		byte[] m = message(1000);
+		assertArrayEquals(m, SegmentedEncryptDecrypt.decrypt(PASS, SegmentedEncryptDecrypt.encrypt(PASS, m, 64)));
+	}
+
+	@Test
+	void roundTripEmpty() {
+		byte[] m = new byte[0];
+		assertArrayEquals(m, SegmentedEncryptDecrypt.decrypt(PASS, SegmentedEncryptDecrypt.encrypt(PASS, m, 64)));
+	}
+
+	@Test
+	void rejectsWrongPassphraseOfSameLength() {
+		byte[] crp = SegmentedEncryptDecrypt.encrypt(PASS, message(1000), 64);
+		assertNull(SegmentedEncryptDecrypt.decrypt("XXXX".getBytes(), crp));
+		assertNull(SegmentedEncryptDecrypt.decrypt("pasS".getBytes(), crp));
+	}
+
+	@Test
+	void rejectsWrongPassphraseOfSameLengthForEmptyMessage() {
+		byte[] crp = SegmentedEncryptDecrypt.encrypt(PASS, new byte[0], 64);
+		assertNull(SegmentedEncryptDecrypt.decrypt("XXXX".getBytes(), crp));
+	}
+
+	@Test
+	void rejectsModifiedSegment() {
+		byte[] crp = SegmentedEncryptDecrypt.encrypt(PASS, message(1000), 64);
+		crp[SegmentedEncryptDecrypt.HEADER + 3 * (64 + 64) + 5] ^= 1;
+		assertNull(SegmentedEncryptDecrypt.decrypt(PASS, crp));
+	}
+}
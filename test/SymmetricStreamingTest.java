@@ -0,0 +1,112 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The streaming symmetric cryptogram against the byte[] one, in both
+ * directions, around the chunk boundary, and with modified or cut cryptograms.
+ * A wrong passphrase is not tested here: the legacy KMACXOF256 drops its key
+ * (see SHA3.encode_string), so ke and ka do not depend on z or the passphrase.
+ */
+class SymmetricStreamingTest {
+
+	private static final byte[] PASS = "pass".getBytes();
+
+	private static final int CHUNK = SymmetricEncryptDecrypt.CHUNK;
+
+	private static final int[] LENGTHS = {0, 1, 63, 64, 65, CHUNK - 65, CHUNK - 64, CHUNK - 1, CHUNK, CHUNK + 1, CHUNK + 64, 2 * CHUNK + 1};
+
+	private static byte[] message(int len) {
+		byte[] m = new byte[len];
+		for (int i = 0; i < len; i++) {
+			m[i] = (byte) (i * 31 + 7);
+		}
+		return m;
+	}
+
+	private static byte[] streamEncrypt(byte[] m) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		SymmetricEncryptDecrypt.symmEncrypt(PASS, new ByteArrayInputStream(m), out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * @return the message, or null if the stream decryption rejected crp
+	 */
+	private static byte[] streamDecrypt(byte[] crp) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		return SymmetricEncryptDecrypt.symmDecrypt(PASS, new ByteArrayInputStream(crp), out) ? out.toByteArray() : null;
+	}
+
+	private static byte[] arrayDecrypt(byte[] crp) throws IOException {
+		int n = crp.length;
+		return SymmetricEncryptDecrypt.symmDecrypt(Arrays.copyOfRange(crp, 0, 64), PASS,
+				Arrays.copyOfRange(crp, 64, n - 64), Arrays.copyOfRange(crp, n - 64, n));
+	}
+
+	@Test
+	void streamToArray() throws IOException {
+		for (int len : LENGTHS) {
+			byte[] m = message(len);
+			byte[] crp = streamEncrypt(m);
+			assertTrue(crp.length == len + 128, "length " + len);
+			assertArrayEquals(m, arrayDecrypt(crp), "length " + len);
+		}
+	}
+
+	@Test
+	void arrayToStream() throws IOException {
+		for (int len : LENGTHS) {
+			byte[] m = message(len);
+			assertArrayEquals(m, streamDecrypt(SymmetricEncryptDecrypt.symmEncrypt(PASS, m, "")), "length " + len);
+		}
+	}
+
+	@Test
+	void fileChannels(@TempDir Path dir) throws IOException {
+		byte[] m = message(CHUNK + 1);
+		Path src = Files.write(dir.resolve("m"), m);
+		Path crp = dir.resolve("c");
+		Path dst = dir.resolve("d");
+		try (FileChannel in = FileChannel.open(src); FileChannel out = FileChannel.open(crp, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			SymmetricEncryptDecrypt.symmEncrypt(PASS, in, out);
+		}
+		try (FileChannel in = FileChannel.open(crp); FileChannel out = FileChannel.open(dst, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			assertTrue(SymmetricEncryptDecrypt.symmDecrypt(PASS, in, out));
+		}
+		assertArrayEquals(m, Files.readAllBytes(dst));
+		assertArrayEquals(m, arrayDecrypt(Files.readAllBytes(crp)));
+	}
+
+	@Test
+	void rejectsModifiedCryptogram() throws IOException {
+		for (int len : new int[] {0, 1, CHUNK}) {
+			byte[] crp = streamEncrypt(message(len));
+			//last bit of t, first bit of t, first bit of c
+			for (int pos : new int[] {crp.length - 1, crp.length - 64, 64}) {
+				byte[] bad = crp.clone();
+				bad[pos] ^= 1;
+				assertArrayEquals(null, streamDecrypt(bad), "length " + len + ", byte " + pos);
+			}
+		}
+	}
+
+	@Test
+	void rejectsTruncatedCryptogram() throws IOException {
+		byte[] crp = streamEncrypt(message(CHUNK + 1));
+		for (int cut : new int[] {crp.length - 1, crp.length - 64, CHUNK, 128, 127, 64, 63, 1, 0}) {
+			assertArrayEquals(null, streamDecrypt(Arrays.copyOf(crp, cut)), "cut at " + cut);
+		}
+	}
+}
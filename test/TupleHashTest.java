@@ -0,0 +1,83 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TupleHash256 and TupleHashXOF256 against the NIST SP 800-185 sample values.
+ */
+class TupleHashTest {
+
+	/**
+	 * 000102 and 101112131415, the tuple of samples #4 and #5.
+	 */
+	private static final byte[][] X2 = {
+			{0x00, 0x01, 0x02},
+			{0x10, 0x11, 0x12, 0x13, 0x14, 0x15}
+	};
+
+	/**
+	 * X2 and 202122232425262728, the tuple of sample #6.
+	 */
+	private static final byte[][] X3 = {
+			X2[0],
+			X2[1],
+			{0x20, 0x21, 0x22, 0x23, 0x24, 0x25, 0x26, 0x27, 0x28}
+	};
+
+	private static final byte[] S = "My Tuple App".getBytes();
+
+	@Test
+	void tupleHash256Sample4() {
+		assertEquals("CFB7058CACA5E668F81A12A20A2195CE97A925F1DBA3E7449A56F82201EC607311AC2696B1AB5EA2352DF1423BDE7BD4BB78C9AED1A853C78672F9EB23BBE194",
+				SHA3.bytesToHex(TupleHash.TupleHash256(X2, 512, "".getBytes())));
+	}
+
+	@Test
+	void tupleHash256Sample5() {
+		assertEquals("147C2191D5ED7EFD98DBD96D7AB5A11692576F5FE2A5065F3E33DE6BBA9F3AA1C4E9A068A289C61C95AAB30AEE1E410B0B607DE3620E24A4E3BF9852A1D4367E",
+				SHA3.bytesToHex(TupleHash.TupleHash256(X2, 512, S)));
+	}
+
+	@Test
+	void tupleHash256Sample6() {
+		assertEquals("45000BE63F9B6BFD89F54717670F69A9BC763591A4F05C50D68891A744BCC6E7D6D5B5E82C018DA999ED35B0BB49C9678E526ABD8E85C13ED254021DB9E790CE",
+				SHA3.bytesToHex(TupleHash.TupleHash256(X3, 512, S)));
+	}
+
+	@Test
+	void tupleHashXOF256Sample4() {
+		assertEquals("03DED4610ED6450A1E3F8BC44951D14FBC384AB0EFE57B000DF6B6DF5AAE7CD568E77377DAF13F37EC75CF5FC598B6841D51DD207C991CD45D210BA60AC52EB9",
+				SHA3.bytesToHex(TupleHash.TupleHashXOF256(X2, 512, "".getBytes())));
+	}
+
+	@Test
+	void tupleHashXOF256Sample5() {
+		assertEquals("6483CB3C9952EB20E830AF4785851FC597EE3BF93BB7602C0EF6A65D741AECA7E63C3B128981AA05C6D27438C79D2754BB1B7191F125D6620FCA12CE658B2442",
+				SHA3.bytesToHex(TupleHash.TupleHashXOF256(X2, 512, S)));
+	}
+
+	@Test
+	void tupleHashXOF256Sample6() {
+		assertEquals("0C59B11464F2336C34663ED51B2B950BEC743610856F36C28D1D088D8A2446284DD09830A6A178DC752376199FAE935D86CFDEE5913D4922DFD369B66A53C897",
+				SHA3.bytesToHex(TupleHash.TupleHashXOF256(X3, 512, S)));
+	}
+
+	@Test
+	void nullCustomizationIsEmpty() {
+		assertEquals(SHA3.bytesToHex(TupleHash.TupleHash256(X2, 512, "".getBytes())),
+				SHA3.bytesToHex(TupleHash.TupleHash256(X2, 512, null)));
+	}
+
+	@Test
+	void buffersMatchArrays() {
+		ByteBuffer[] b = new ByteBuffer[X3.length];
+		for (int i = 0; i < X3.length; i++) {
+			b[i] = ByteBuffer.wrap(X3[i]);
+		}
+		assertEquals(SHA3.bytesToHex(TupleHash.TupleHashXOF256(X3, 512, S)),
+				SHA3.bytesToHex(TupleHash.TupleHashXOF256(b, 512, S)));
+		assertEquals(0, b[0].position());
+	}
+}
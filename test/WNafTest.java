@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Width-w NAF recoding and multiplication against plain double-and-add,
+ * including the point of order 2 and points outside the subgroup of G.
+ */
+class WNafTest {
+
+	@Test
+	void recodingReconstructsScalar() {
+		for (int w = 2; w <= 8; w++) {
+			for (BigInteger k : E521Reference.scalars(w)) {
+				k = k.abs();
+				byte[] naf = WNaf.recode(k, w);
+				BigInteger sum = BigInteger.ZERO;
+				int lastNonZero = -w;
+				for (int i = naf.length - 1; i >= 0; i--) {
+					sum = sum.shiftLeft(1).add(BigInteger.valueOf(naf[i]));
+				}
+				for (int i = 0; i < naf.length; i++) {
+					if (naf[i] != 0) {
+						//odd digits below 2^(w-1), at least w positions apart
+						assertTrue((naf[i] & 1) != 0 && Math.abs(naf[i]) < 1 << (w - 1), "digit " + naf[i]);
+						assertTrue(i - lastNonZero >= w, "adjacent digits at " + i);
+						lastNonZero = i;
+					}
+				}
+				assertEquals(k, sum, "w = " + w);
+			}
+		}
+	}
+
+	@Test
+	void multiplesOfPoints() {
+		Random rnd = new Random(78);
+		ECPoint[] points = {
+				E521Reference.randomPoint(rnd),
+				E521Reference.add(E521Reference.randomPoint(rnd), E521Reference.T2),
+				E521Reference.O
+		};
+		for (ECPoint p : points) {
+			for (BigInteger k : E521Reference.scalars(90)) {
+				ECPoint expected = E521Reference.multiply(k, p);
+				assertEquals(expected, WNaf.multiply(k, p), k.toString(16));
+				assertEquals(expected, ECPoint.multByScalar(k, p), k.toString(16));
+			}
+		}
+	}
+
+	@Test
+	void multiplesOfG() {
+		//the shared G table path, and agreement with the comb
+		for (BigInteger k : E521Reference.scalars(12)) {
+			ECPoint expected = E521Reference.multiply(k, ECPoint.G);
+			assertEquals(expected, WNaf.multiply(k, ECPoint.G), k.toString(16));
+			assertEquals(expected, new FixedBaseComb(ECPoint.G, 521).multiply(k.mod(E521Reference.R)));
+		}
+	}
+
+	@Test
+	void pointOfOrderTwo() {
+		for (BigInteger k : E521Reference.scalars(34)) {
+			ECPoint expected = k.testBit(0) ? E521Reference.T2 : E521Reference.O;
+			assertEquals(expected, WNaf.multiply(k, E521Reference.T2), k.toString(16));
+			assertEquals(expected, ECPoint.multByScalar(k, E521Reference.T2), k.toString(16));
+		}
+	}
+
+	@Test
+	void oddMultiples() {
+		ECPoint p = E521Reference.add(E521Reference.randomPoint(new Random(56)), E521Reference.T2);
+		PrecomputedPoint[] normalized = WNaf.normalizedOddMultiples(p, 5);
+		PrecomputedPoint[] projective = WNaf.oddMultiples(ExtendedECPoint.fromAffine(p), 5);
+		assertEquals(8, normalized.length);
+		for (int i = 0; i < normalized.length; i++) {
+			ECPoint expected = E521Reference.multiply(BigInteger.valueOf(2 * i + 1), p);
+			assertEquals(expected, new ExtendedECPoint().addPrecomputed(normalized[i]).toAffine());
+			assertEquals(expected, new ExtendedECPoint().addPrecomputed(projective[i]).toAffine());
+		}
+	}
+}